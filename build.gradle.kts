@@ -2,6 +2,7 @@ plugins {
     id("java")
     id("java-library")
     alias(libs.plugins.shadow)
+    alias(libs.plugins.jmh)
 }
 
 allprojects {
@@ -111,6 +112,30 @@ dependencies {
     compileOnly("org.mongodb:mongodb-driver-legacy:4.5.0")
     compileOnly("org.postgresql:postgresql:42.6.0")
     compileOnly("org.yaml:snakeyaml:1.28")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher:1.10.2")
+    testImplementation("org.mockito:mockito-core:4.11.0")
+
+    jmh("org.mockito:mockito-core:4.11.0")
+}
+
+configurations {
+    // tests and benchmarks run outside of the server, so the compile only dependencies must be provided
+    testImplementation {
+        extendsFrom(configurations.compileOnly.get())
+    }
+    named("jmhImplementation") {
+        extendsFrom(configurations.compileOnly.get())
+    }
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+jmh {
+    jmhVersion = "1.37"
 }
 
 tasks.shadowJar {
@@ -0,0 +1,116 @@
+package me.kubbidev.multiversus.core.manager;
+
+import me.kubbidev.multiversus.FBukkitPlugin;
+import me.kubbidev.multiversus.config.ConfigKeys;
+import me.kubbidev.multiversus.config.MultiConfiguration;
+import me.kubbidev.multiversus.core.damage.AttackMetadata;
+import me.kubbidev.multiversus.core.damage.AttackOutcome;
+import me.kubbidev.multiversus.core.damage.DamageMetadata;
+import me.kubbidev.multiversus.core.damage.DamageType;
+import me.kubbidev.multiversus.core.damage.EntityMetadata;
+import me.kubbidev.multiversus.core.util.EquipmentSlot;
+import org.bukkit.entity.LivingEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the cost of damaging every target of an area of effect skill through one
+ * {@link DamageManager#registerAttacks(java.util.Collection, double, boolean)} call with
+ * the cost of one {@link DamageManager#registerAttack(AttackMetadata, double, boolean)}
+ * call per target.
+ * <p>
+ * Targets are stubbed entities which unregister their attack when damaged, like the damage
+ * listener would, so only the bookkeeping of the damage manager is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DamageManagerBenchmark {
+
+    @Param({"1", "50", "200"})
+    private int targets;
+
+    private DamageManager damageManager;
+    private List<AttackMetadata> attacks;
+
+    @Setup
+    public void setup() {
+        MultiConfiguration configuration = mock(MultiConfiguration.class);
+        when(configuration.get(ConfigKeys.ATTACK_RECYCLING_ENABLED)).thenReturn(false);
+        when(configuration.get(ConfigKeys.ATTACK_RECYCLING_DEBUG)).thenReturn(false);
+        when(configuration.get(ConfigKeys.PER_SOURCE_IMMUNITY_ENABLED)).thenReturn(false);
+        when(configuration.get(ConfigKeys.COMBAT_LOG_SIZE)).thenReturn(0);
+
+        FBukkitPlugin plugin = mock(FBukkitPlugin.class);
+        when(plugin.getConfiguration()).thenReturn(configuration);
+        this.damageManager = new DamageManager(plugin);
+
+        EntityMetadata attacker = new EntityMetadata(plugin, entity(-1), EquipmentSlot.MAIN_HAND);
+        this.attacks = new ArrayList<>(this.targets);
+        for (int i = 0; i < this.targets; i++) {
+            this.attacks.add(new AttackMetadata(new DamageMetadata(5, DamageType.SKILL), entity(i), attacker));
+        }
+    }
+
+    @Benchmark
+    public List<AttackOutcome> registerAttacks() {
+        return this.damageManager.registerAttacks(this.attacks, 0, true);
+    }
+
+    @Benchmark
+    public int registerAttack() {
+        int hits = 0;
+        for (AttackMetadata attack : this.attacks) {
+            this.damageManager.registerAttack(attack, 0, true);
+            hits++;
+        }
+        return hits;
+    }
+
+    /**
+     * @param entityId The entity id
+     * @return A living entity which only supports what the damage manager uses
+     */
+    private LivingEntity entity(int entityId) {
+        UUID uniqueId = new UUID(0, entityId);
+        int[] noDamageTicks = new int[1];
+
+        return (LivingEntity) Proxy.newProxyInstance(LivingEntity.class.getClassLoader(), new Class<?>[]{LivingEntity.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getEntityId":
+                    return entityId;
+                case "getUniqueId":
+                    return uniqueId;
+                case "getNoDamageTicks":
+                    return noDamageTicks[0];
+                case "setNoDamageTicks":
+                    noDamageTicks[0] = (int) args[0];
+                    return null;
+                case "damage":
+                    this.damageManager.unmarkAsMetadata((LivingEntity) proxy);
+                    return null;
+                case "isDead":
+                    return false;
+                case "hashCode":
+                    return entityId;
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "Entity#" + entityId;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package me.kubbidev.multiversus.core.modifier;
+
+import me.kubbidev.multiversus.core.util.EquipmentSlot;
+import org.bukkit.entity.LivingEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ModifierMap#isolateModifiers(EquipmentSlot)}, which reads the modifiers
+ * bucketed by hand compatibility when they were added, with filtering every modifier on
+ * every query through the compatibility switch, as it was done before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModifierMapBenchmark {
+    private static final ModifierSource[] SOURCES = ModifierSource.values();
+    private static final EquipmentSlot[] SLOTS = EquipmentSlot.values();
+
+    @Param({"10", "100", "1000"})
+    private int modifiers;
+
+    private ModifierMap<EntityModifier> modifierMap;
+
+    @Setup
+    public void setup() {
+        this.modifierMap = new ModifierMap<EntityModifier>(null) {
+        };
+
+        Random random = new Random(0);
+        for (int i = 0; i < this.modifiers; i++) {
+            ModifierSource source = SOURCES[random.nextInt(SOURCES.length)];
+            EquipmentSlot slot = SLOTS[random.nextInt(SLOTS.length)];
+            this.modifierMap.addModifier(new EntityModifier(source, slot, "benchmark") {
+                @Override
+                public void register(LivingEntity entity) {
+                }
+
+                @Override
+                public void unregister(LivingEntity entity) {
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public int bucketed() {
+        return count(this.modifierMap.isolateModifiers(EquipmentSlot.MAIN_HAND))
+                + count(this.modifierMap.isolateModifiers(EquipmentSlot.OFF_HAND));
+    }
+
+    @Benchmark
+    public int filtered() {
+        return count(filter(EquipmentSlot.MAIN_HAND)) + count(filter(EquipmentSlot.OFF_HAND));
+    }
+
+    private static int count(List<EntityModifier> modifiers) {
+        int count = 0;
+        for (EntityModifier modifier : modifiers) {
+            if (modifier.getSource() != ModifierSource.VOID) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private List<EntityModifier> filter(EquipmentSlot hand) {
+        List<EntityModifier> isolated = new ArrayList<>();
+        for (EntityModifier modifier : this.modifierMap.getModifiers()) {
+            if (isCompatible(hand, modifier.getSource(), modifier.getSlot())) {
+                isolated.add(modifier);
+            }
+        }
+        return isolated;
+    }
+
+    /**
+     * The compatibility check done on every query before compatibilities were precomputed.
+     */
+    private static boolean isCompatible(EquipmentSlot hand, ModifierSource modifierSource, EquipmentSlot equipmentSlot) {
+        if (equipmentSlot == EquipmentSlot.OTHER) {
+            return true;
+        }
+
+        switch (modifierSource) {
+            case VOID:
+                return false;
+            case OTHER:
+                return true;
+            case RANGED_WEAPON:
+            case MELEE_WEAPON:
+                return equipmentSlot == hand;
+            case OFFHAND_ITEM:
+                return equipmentSlot == EquipmentSlot.OFF_HAND;
+            case MAINHAND_ITEM:
+                return equipmentSlot == EquipmentSlot.MAIN_HAND;
+            case HAND_ITEM:
+                return equipmentSlot.isHand();
+            case ARMOR:
+                return equipmentSlot == EquipmentSlot.ARMOR;
+            case ACCESSORY:
+                return equipmentSlot == EquipmentSlot.ACCESSORY;
+            default:
+                throw new IllegalArgumentException(modifierSource.name());
+        }
+    }
+}
@@ -7,6 +7,9 @@ import me.kubbidev.multiversus.config.generic.adapter.ConfigurationAdapter;
 import me.kubbidev.multiversus.core.listener.AttackEventListener;
 import me.kubbidev.multiversus.core.manager.*;
 import me.kubbidev.multiversus.core.metadata.Metadata;
+import me.kubbidev.multiversus.core.modifier.persistence.ModifierCodecRegistry;
+import me.kubbidev.multiversus.core.modifier.persistence.ModifierPersistence;
+import me.kubbidev.multiversus.core.modifier.persistence.SkillModifierCodec;
 import me.kubbidev.multiversus.dependencies.Dependency;
 import me.kubbidev.multiversus.event.AbstractEventBus;
 import me.kubbidev.multiversus.listeners.BukkitConnectionListener;
@@ -39,11 +42,14 @@ public class FBukkitPlugin extends AbstractMultiPlugin {
     private StandardUserManager userManager;
 
     private DamageManager damageManager;
+    private DamageOverTimeManager damageOverTimeManager;
+    private ModifierExpiryManager modifierExpiryManager;
     private EntityManager entityManager;
     private SkillManager skillManager;
 
     private final IndicatorManager indicatorManager = new IndicatorManager();
     private final FakeEventManager fakeEventManager = new FakeEventManager();
+    private final ModifierCodecRegistry modifierCodecRegistry = new ModifierCodecRegistry();
 
     public FBukkitPlugin(FBukkitBootstrap bootstrap) {
         this.bootstrap = bootstrap;
@@ -86,6 +92,13 @@ public class FBukkitPlugin extends AbstractMultiPlugin {
         this.damageManager = new DamageManager(this);
         this.bootstrap.getServer().getPluginManager().registerEvents(this.damageManager, this.bootstrap.getLoader());
         this.bootstrap.getServer().getPluginManager().registerEvents(new AttackEventListener(this), this.bootstrap.getLoader());
+
+        this.damageOverTimeManager = new DamageOverTimeManager(this);
+        this.damageOverTimeManager.runTaskTimer(this.bootstrap.getLoader(), 1, 1);
+        this.bootstrap.getServer().getPluginManager().registerEvents(this.damageOverTimeManager, this.bootstrap.getLoader());
+
+        this.modifierExpiryManager = new ModifierExpiryManager(this);
+        this.modifierExpiryManager.runTaskTimer(this.bootstrap.getLoader(), 1, 1);
     }
 
     @Override
@@ -131,6 +144,8 @@ public class FBukkitPlugin extends AbstractMultiPlugin {
 
         this.skillManager = new SkillManager(this);
         this.skillManager.load(false);
+        this.bootstrap.getServer().getScheduler().runTaskTimer(this.bootstrap.getLoader(), this.skillManager::tickDelayedCasts, 1, 1);
+        this.modifierCodecRegistry.register(new SkillModifierCodec(this.skillManager));
 
         // load indicators from configuration file
         this.indicatorManager.load(this);
@@ -168,12 +183,22 @@ public class FBukkitPlugin extends AbstractMultiPlugin {
         // setup metadata housekeeper runnable
         Metadata.setupHousekeeper(this.bootstrap.getLoader());
 
+        if (getConfiguration().get(ConfigKeys.PERSIST_ENTITY_MODIFIERS)) {
+            ModifierPersistence.setup(this);
+        }
+
         //noinspection resource
         getEventDispatcher().getEventBus().subscribe(ConfigReloadEvent.class, this::onConfigReload);
     }
 
     @Override
     protected void removePlatformHooks() {
+        // Save entity modifiers before worlds are saved
+        ModifierPersistence.shutdown();
+
+        // Give back vanilla immunity frames before entities are saved
+        this.damageManager.restoreImmunityFrames();
+
         // Unload players
         for (Player player : this.bootstrap.getServer().getOnlinePlayers()) {
             getUserManager().unload(player.getUniqueId());
@@ -241,6 +266,18 @@ public class FBukkitPlugin extends AbstractMultiPlugin {
         return this.damageManager;
     }
 
+    public DamageOverTimeManager getDamageOverTimeManager() {
+        return this.damageOverTimeManager;
+    }
+
+    public ModifierExpiryManager getModifierExpiryManager() {
+        return this.modifierExpiryManager;
+    }
+
+    public ModifierCodecRegistry getModifierCodecRegistry() {
+        return this.modifierCodecRegistry;
+    }
+
     public EntityManager getEntityManager() {
         return this.entityManager;
     }
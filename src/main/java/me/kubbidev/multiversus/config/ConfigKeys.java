@@ -251,6 +251,36 @@ public final class ConfigKeys {
      */
     public static final ConfigKey<Boolean> INDICATOR_REGENERATION_ENABLED = booleanKey("game-indicators.regeneration.enabled", true);
 
+    /**
+     * If Multiversus should recycle the attack objects created for vanilla attacks.
+     */
+    public static final ConfigKey<Boolean> ATTACK_RECYCLING_ENABLED = notReloadable(booleanKey("damage.attack-recycling.enabled", false));
+
+    /**
+     * If recycled attack objects should be checked for usages after being recycled.
+     */
+    public static final ConfigKey<Boolean> ATTACK_RECYCLING_DEBUG = notReloadable(booleanKey("damage.attack-recycling.debug", false));
+
+    /**
+     * If immunity frames should be tracked per damage source instead of per damaged entity.
+     */
+    public static final ConfigKey<Boolean> PER_SOURCE_IMMUNITY_ENABLED = notReloadable(booleanKey("damage.per-source-immunity.enabled", false));
+
+    /**
+     * How many ticks an entity stays immune to the source which damaged it.
+     */
+    public static final ConfigKey<Integer> PER_SOURCE_IMMUNITY_TICKS = notReloadable(key(c -> Math.max(1, c.getInteger("damage.per-source-immunity.ticks", 10))));
+
+    /**
+     * How many attacks are kept in the combat log of every entity. A value <= 0 will disable combat logs.
+     */
+    public static final ConfigKey<Integer> COMBAT_LOG_SIZE = notReloadable(key(c -> c.getInteger("damage.combat-log-size", 16)));
+
+    /**
+     * If the skill modifiers of entities should be saved in their persistent data when they are unloaded.
+     */
+    public static final ConfigKey<Boolean> PERSIST_ENTITY_MODIFIERS = notReloadable(booleanKey("persist-entity-modifiers", false));
+
     /**
      * A list of the keys defined in this class.
      */
@@ -1,8 +1,11 @@
 package me.kubbidev.multiversus.core.damage;
 
+import org.bukkit.entity.Entity;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Set;
+
 public interface AttackHandler {
 
     /**
@@ -15,4 +18,31 @@ public interface AttackHandler {
      */
     @Nullable
     AttackMetadata getAttack(EntityDamageEvent event);
-}
\ No newline at end of file
+
+    /**
+     * Damage causes of the events this handler should be consulted for.
+     * <p>
+     * The returned value is only read once, when the handler is registered.
+     *
+     * @return The damage causes this handler can find attacks for, or null if
+     * it must be consulted for every damage cause.
+     */
+    default @Nullable Set<EntityDamageEvent.DamageCause> getDamageCauses() {
+        return null;
+    }
+
+    /**
+     * Damager types of the events this handler should be consulted for.
+     * <p>
+     * When declared, the handler is only consulted for {@link org.bukkit.event.entity.EntityDamageByEntityEvent}s
+     * whose damager is an instance of one of the returned types.
+     * <p>
+     * The returned value is only read once, when the handler is registered.
+     *
+     * @return The damager types this handler can find attacks for, or null if
+     * it must be consulted for any damager, including no damager at all.
+     */
+    default @Nullable Set<Class<? extends Entity>> getDamagerTypes() {
+        return null;
+    }
+}
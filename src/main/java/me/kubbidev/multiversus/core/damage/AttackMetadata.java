@@ -7,11 +7,22 @@ import java.util.Objects;
 
 public class AttackMetadata {
 
-    private final DamageMetadata metadata;
-    private final LivingEntity target;
+    private DamageMetadata metadata;
+    private LivingEntity target;
 
     @Nullable
-    private final EntityMetadata attacker;
+    private EntityMetadata attacker;
+
+    /**
+     * If this attack was provided by an {@link AttackPool}, in which
+     * case it is given back to the pool once unregistered.
+     */
+    private boolean pooled;
+
+    /**
+     * If this attack was given back to its pool and must no longer be used.
+     */
+    private boolean recycled;
 
     /**
      * Used by {@link AttackHandler} instances to register attacks.
@@ -33,18 +44,67 @@ public class AttackMetadata {
     }
 
     public DamageMetadata getMetadata() {
+        checkNotRecycled();
         return this.metadata;
     }
 
     public LivingEntity getTarget() {
+        checkNotRecycled();
         return this.target;
     }
 
     public @Nullable EntityMetadata getAttacker() {
+        checkNotRecycled();
         return this.attacker;
     }
 
     public boolean hasAttacker() {
+        checkNotRecycled();
         return this.attacker != null;
     }
+
+    public boolean isPooled() {
+        return this.pooled;
+    }
+
+    public boolean isRecycled() {
+        return this.recycled;
+    }
+
+    /**
+     * Prevents this attack, its damage metadata and its attacker from being given back
+     * to their {@link AttackPool} once unregistered, so that references to them can be
+     * kept after the damage event. This does nothing if the attack was not pooled.
+     *
+     * @return This attack
+     */
+    public AttackMetadata retain() {
+        checkNotRecycled();
+        this.pooled = false;
+        if (this.attacker != null) {
+            this.attacker.retain();
+        }
+        return this;
+    }
+
+    void init(DamageMetadata metadata, LivingEntity target, @Nullable EntityMetadata attacker) {
+        this.metadata = Objects.requireNonNull(metadata, "Damage cannot be null");
+        this.target = target;
+        this.attacker = attacker;
+        this.pooled = true;
+        this.recycled = false;
+    }
+
+    void recycle() {
+        this.metadata = null;
+        this.target = null;
+        this.attacker = null;
+        this.recycled = true;
+    }
+
+    protected void checkNotRecycled() {
+        if (this.recycled) {
+            throw new IllegalStateException("Attack metadata was used after being recycled");
+        }
+    }
 }
\ No newline at end of file
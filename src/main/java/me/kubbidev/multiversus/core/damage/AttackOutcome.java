@@ -0,0 +1,28 @@
+package me.kubbidev.multiversus.core.damage;
+
+/**
+ * Outcome of an attack registered through
+ * {@link me.kubbidev.multiversus.core.manager.DamageManager#registerAttacks}.
+ */
+public enum AttackOutcome {
+    /**
+     * Damage was dealt to the target
+     */
+    HIT,
+    /**
+     * The damage event was cancelled, or never called at all
+     * because the target could not be damaged
+     */
+    CANCELLED,
+    /**
+     * Damage was dealt and the target died from it
+     */
+    KILLED;
+
+    /**
+     * @return If damage was dealt to the target
+     */
+    public boolean isHit() {
+        return this != CANCELLED;
+    }
+}
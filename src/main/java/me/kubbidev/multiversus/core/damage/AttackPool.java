@@ -0,0 +1,186 @@
+package me.kubbidev.multiversus.core.damage;
+
+import me.kubbidev.multiversus.FBukkitPlugin;
+import me.kubbidev.multiversus.core.util.EquipmentSlot;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Projectile;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Per-thread pools of the attack objects created by Multiversus for vanilla attacks.
+ * <p>
+ * Every vanilla attack reaching {@link me.kubbidev.multiversus.core.manager.DamageManager#findAttack}
+ * needs an {@link AttackMetadata}, its {@link DamageMetadata} and {@link DamagePacket}, and usually an
+ * {@link EntityMetadata} for the attacker. They are all discarded as soon as the attack is unregistered,
+ * so when recycling is enabled they are given back to the pool of the current thread instead.
+ * <p>
+ * Only objects provided by this pool are recycled, attacks registered by other
+ * plugins are never touched.
+ * <p>
+ * Plugins must NOT keep references to an attack after it has been unregistered, unless they
+ * {@link AttackMetadata#retain() retain} it first. Skill triggers retain the attack and the
+ * attacker they are created from. The debug mode can be used to track down such usages:
+ * recycled objects are then never reused and throw an {@link IllegalStateException} whenever
+ * they are accessed.
+ */
+public final class AttackPool {
+    /**
+     * Maximum amount of objects of each kind kept by the pool of a thread.
+     */
+    private static final int MAX_SIZE = 64;
+
+    private final boolean enabled;
+    private final boolean debug;
+
+    private final ThreadLocal<Pool> pools = ThreadLocal.withInitial(Pool::new);
+
+    /**
+     * @param enabled If objects should be recycled, otherwise this pool
+     *                simply allocates new objects.
+     * @param debug   If recycled objects should never be reused so that any
+     *                usage after being recycled is detected.
+     */
+    public AttackPool(boolean enabled, boolean debug) {
+        this.enabled = enabled;
+        this.debug = debug;
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public boolean isDebug() {
+        return this.debug;
+    }
+
+    public EntityMetadata entity(FBukkitPlugin plugin, LivingEntity entity, EquipmentSlot actionHand) {
+        if (!this.enabled) {
+            return new EntityMetadata(plugin, entity, actionHand);
+        }
+
+        @Nullable EntityMetadata metadata = this.pools.get().entities.poll();
+        if (metadata == null) {
+            metadata = new EntityMetadata(plugin, entity, actionHand);
+        }
+        metadata.init(plugin, entity, actionHand);
+        return metadata;
+    }
+
+    public DamageMetadata damage(double damage, int typeMask) {
+        if (!this.enabled) {
+            return new DamageMetadata(damage, null, typeMask);
+        }
+
+        Pool pool = this.pools.get();
+        @Nullable DamagePacket packet = pool.packets.poll();
+        if (packet == null) {
+            packet = new DamagePacket(damage, null, typeMask);
+        }
+        packet.init(damage, null, typeMask);
+
+        @Nullable DamageMetadata metadata = pool.damages.poll();
+        if (metadata == null) {
+            metadata = new DamageMetadata();
+        }
+        metadata.init(packet);
+        return metadata;
+    }
+
+    public AttackMetadata attack(DamageMetadata damage, LivingEntity target) {
+        if (!this.enabled) {
+            return new AttackMetadata(damage, target, null);
+        }
+
+        @Nullable AttackMetadata attack = this.pools.get().attacks.poll();
+        if (attack == null) {
+            attack = new AttackMetadata(damage, target, null);
+        }
+        attack.init(damage, target, null);
+        return attack;
+    }
+
+    public MeleeAttackMetadata melee(DamageMetadata damage, LivingEntity target, EntityMetadata attacker) {
+        if (!this.enabled) {
+            return new MeleeAttackMetadata(damage, target, attacker);
+        }
+
+        @Nullable MeleeAttackMetadata attack = this.pools.get().meleeAttacks.poll();
+        if (attack == null) {
+            attack = new MeleeAttackMetadata(damage, target, attacker);
+        }
+        attack.init(damage, target, attacker);
+        return attack;
+    }
+
+    public ProjectileAttackMetadata projectile(DamageMetadata damage, LivingEntity target, EntityMetadata attacker, Projectile projectile) {
+        if (!this.enabled) {
+            return new ProjectileAttackMetadata(damage, target, attacker, projectile);
+        }
+
+        @Nullable ProjectileAttackMetadata attack = this.pools.get().projectileAttacks.poll();
+        if (attack == null) {
+            attack = new ProjectileAttackMetadata(damage, target, attacker, projectile);
+        }
+        attack.init(damage, target, attacker, projectile);
+        return attack;
+    }
+
+    /**
+     * Gives an attack, its damage metadata and attacker back to the pool of the current thread.
+     * <p>
+     * This does nothing if the attack was not provided by this pool.
+     *
+     * @param attack The attack that was unregistered
+     */
+    public void recycle(AttackMetadata attack) {
+        if (!attack.isPooled() || attack.isRecycled()) {
+            return;
+        }
+
+        DamageMetadata damage = attack.getMetadata();
+        @Nullable EntityMetadata attacker = attack.getAttacker();
+        attack.recycle();
+
+        Pool pool = this.pools.get();
+        List<DamagePacket> packets = damage.recycle();
+        for (DamagePacket packet : packets) {
+            packet.recycle();
+            offer(pool.packets, packet);
+        }
+        packets.clear();
+        offer(pool.damages, damage);
+
+        if (attacker != null && attacker.isPooled()) {
+            attacker.recycle();
+            offer(pool.entities, attacker);
+        }
+
+        if (attack instanceof ProjectileAttackMetadata) {
+            offer(pool.projectileAttacks, (ProjectileAttackMetadata) attack);
+        } else if (attack instanceof MeleeAttackMetadata) {
+            offer(pool.meleeAttacks, (MeleeAttackMetadata) attack);
+        } else if (attack.getClass() == AttackMetadata.class) {
+            offer(pool.attacks, attack);
+        }
+    }
+
+    private <T> void offer(Deque<T> deque, T value) {
+        // recycled objects are never reused in debug mode
+        if (!this.debug && deque.size() < MAX_SIZE) {
+            deque.offer(value);
+        }
+    }
+
+    private static final class Pool {
+        private final Deque<AttackMetadata> attacks = new ArrayDeque<>();
+        private final Deque<MeleeAttackMetadata> meleeAttacks = new ArrayDeque<>();
+        private final Deque<ProjectileAttackMetadata> projectileAttacks = new ArrayDeque<>();
+        private final Deque<DamageMetadata> damages = new ArrayDeque<>();
+        private final Deque<DamagePacket> packets = new ArrayDeque<>();
+        private final Deque<EntityMetadata> entities = new ArrayDeque<>();
+    }
+}
@@ -0,0 +1,149 @@
+package me.kubbidev.multiversus.core.damage;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The last attacks an entity received, used for kill and assist attribution,
+ * damage sharing or death recaps.
+ * <p>
+ * Attacks are stored in a fixed-size ring buffer backed by primitive arrays, so
+ * recording an attack never allocates and the oldest attacks are overwritten
+ * once the log is full.
+ * <p>
+ * Logs are filled by the {@link me.kubbidev.multiversus.core.manager.DamageManager} when
+ * attacks are unregistered. Logs are thread safe, every access is synchronized so that
+ * they can be read from another thread than the one damaging the entity.
+ */
+public final class CombatLog {
+    private final long[] attackerMost;
+    private final long[] attackerLeast;
+    private final boolean[] hasAttacker;
+    private final double[] damage;
+    private final int[] elementMasks;
+    private final int[] typeMasks;
+    private final long[] ticks;
+
+    /**
+     * Index at which the next attack is recorded.
+     */
+    private int head;
+
+    /**
+     * Amount of attacks recorded, up to the capacity of the log.
+     */
+    private int size;
+
+    public CombatLog(int capacity) {
+        Preconditions.checkArgument(capacity > 0, "Capacity must be strictly positive");
+        this.attackerMost = new long[capacity];
+        this.attackerLeast = new long[capacity];
+        this.hasAttacker = new boolean[capacity];
+        this.damage = new double[capacity];
+        this.elementMasks = new int[capacity];
+        this.typeMasks = new int[capacity];
+        this.ticks = new long[capacity];
+    }
+
+    /**
+     * Records an attack, overwriting the oldest one if the log is full.
+     *
+     * @param attacker    The unique id of the entity who dealt the damage, if any
+     * @param damage      The final damage dealt
+     * @param elementMask The elements of the attack
+     * @param typeMask    The damage types of the attack
+     * @param tick        The current server tick
+     */
+    public synchronized void record(@Nullable UUID attacker, double damage, int elementMask, int typeMask, long tick) {
+        int i = this.head;
+        if (attacker != null) {
+            this.attackerMost[i] = attacker.getMostSignificantBits();
+            this.attackerLeast[i] = attacker.getLeastSignificantBits();
+        }
+        this.hasAttacker[i] = attacker != null;
+        this.damage[i] = damage;
+        this.elementMasks[i] = elementMask;
+        this.typeMasks[i] = typeMask;
+        this.ticks[i] = tick;
+
+        this.head = (i + 1) % this.ticks.length;
+        if (this.size < this.ticks.length) {
+            this.size++;
+        }
+    }
+
+    public int getCapacity() {
+        return this.ticks.length;
+    }
+
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * @param since The first server tick of the time window
+     * @return The attacks recorded since the given tick, most recent first
+     */
+    public synchronized List<CombatLogEntry> getEntries(long since) {
+        List<CombatLogEntry> entries = new ArrayList<>();
+        for (int n = 0; n < this.size; n++) {
+            int i = index(n);
+            if (this.ticks[i] < since) {
+                break;
+            }
+            entries.add(new CombatLogEntry(getAttacker(i), this.damage[i], this.elementMasks[i], this.typeMasks[i], this.ticks[i]));
+        }
+        return entries;
+    }
+
+    /**
+     * @param since The first server tick of the time window
+     * @return The total damage dealt by every attacker since the given tick,
+     * attacks without attacker are not included
+     */
+    public synchronized Map<UUID, Double> getDamageByAttacker(long since) {
+        Map<UUID, Double> damage = new HashMap<>();
+        for (int n = 0; n < this.size; n++) {
+            int i = index(n);
+            if (this.ticks[i] < since) {
+                break;
+            }
+            @Nullable UUID attacker = getAttacker(i);
+            if (attacker != null) {
+                damage.merge(attacker, this.damage[i], Double::sum);
+            }
+        }
+        return damage;
+    }
+
+    /**
+     * @param since The first server tick of the time window
+     * @return The total damage received since the given tick
+     */
+    public synchronized double getTotalDamage(long since) {
+        double total = 0;
+        for (int n = 0; n < this.size; n++) {
+            int i = index(n);
+            if (this.ticks[i] < since) {
+                break;
+            }
+            total += this.damage[i];
+        }
+        return total;
+    }
+
+    /**
+     * @param n How many attacks were recorded after the one being looked for
+     * @return The index of the n-th most recent attack
+     */
+    private int index(int n) {
+        int i = this.head - 1 - n;
+        return i < 0 ? i + this.ticks.length : i;
+    }
+
+    private @Nullable UUID getAttacker(int i) {
+        return this.hasAttacker[i] ? new UUID(this.attackerMost[i], this.attackerLeast[i]) : null;
+    }
+}
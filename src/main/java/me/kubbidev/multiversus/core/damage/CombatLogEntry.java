@@ -0,0 +1,79 @@
+package me.kubbidev.multiversus.core.damage;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * An attack recorded in a {@link CombatLog}.
+ */
+public final class CombatLogEntry {
+    private static final Element[] ELEMENTS = Element.values();
+
+    @Nullable
+    private final UUID attacker;
+
+    private final double damage;
+    private final int elementMask;
+    private final int typeMask;
+    private final long tick;
+
+    CombatLogEntry(@Nullable UUID attacker, double damage, int elementMask, int typeMask, long tick) {
+        this.attacker = attacker;
+        this.damage = damage;
+        this.elementMask = elementMask;
+        this.typeMask = typeMask;
+        this.tick = tick;
+    }
+
+    /**
+     * @return The unique id of the entity who dealt the damage, if any
+     */
+    public @Nullable UUID getAttacker() {
+        return this.attacker;
+    }
+
+    /**
+     * @return The final damage dealt by the attack
+     */
+    public double getDamage() {
+        return this.damage;
+    }
+
+    /**
+     * @return The elements of the attack, see {@link DamageMetadata#getElementMask()}
+     */
+    public int getElementMask() {
+        return this.elementMask;
+    }
+
+    public Set<Element> getElements() {
+        Set<Element> elements = EnumSet.noneOf(Element.class);
+        for (Element element : ELEMENTS) {
+            if ((this.elementMask & 1 << element.ordinal()) != 0) {
+                elements.add(element);
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * @return The damage types of the attack, see {@link DamageType#getMask()}
+     */
+    public int getTypeMask() {
+        return this.typeMask;
+    }
+
+    public Set<DamageType> getTypes() {
+        return DamageType.toSet(this.typeMask);
+    }
+
+    /**
+     * @return The server tick during which the attack was dealt
+     */
+    public long getTick() {
+        return this.tick;
+    }
+}
@@ -1,11 +1,46 @@
 package me.kubbidev.multiversus.core.damage;
 
+import com.google.common.base.Preconditions;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
 public class DamageMetadata implements Cloneable {
+    private static final Element[] ELEMENTS = Element.values();
+
+    /**
+     * Index of the non-elemental damage inside of {@link #elementDamage}.
+     */
+    private static final int NON_ELEMENTAL = ELEMENTS.length;
+
+    private static final int TYPE_COUNT = DamageType.values().length;
+    private static final int ALL_TYPES = (1 << TYPE_COUNT) - 1;
+
     private final List<DamagePacket> packets = new ArrayList<>();
+    private final List<DamagePacket> packetsView = Collections.unmodifiableList(this.packets);
+
+    /**
+     * Running totals of the final damage values of all the packets.
+     * <p>
+     * They are only computed again when a packet is registered, or when the
+     * value or modifiers of a registered packet change.
+     *
+     * @see #invalidate()
+     */
+    private boolean dirty = true;
+    private double totalDamage;
+    private final double[] elementDamage = new double[ELEMENTS.length + 1];
+    private final double[] typeDamage = new double[TYPE_COUNT];
+    private int elementMask;
+    private int typeMask;
+
+    @Nullable
+    private Map<Element, Double> elementalDamageView;
+
+    /**
+     * If this metadata was given back to its pool and must no longer be used.
+     */
+    private boolean recycled;
 
     /**
      * The first damage packet to be registered inside of this damage
@@ -19,7 +54,7 @@ public class DamageMetadata implements Cloneable {
      * Although not common, it can be null.
      */
     @Nullable
-    private final DamagePacket initialPacket;
+    private DamagePacket initialPacket;
 
     private boolean weaponCrit;
     private boolean skillCrit;
@@ -51,12 +86,32 @@ public class DamageMetadata implements Cloneable {
      * @param types   The attack damage types
      */
     public DamageMetadata(double damage, @Nullable Element element, DamageType... types) {
-        this.initialPacket = new DamagePacket(damage, element, types);
-        this.packets.add(this.initialPacket);
+        this(damage, element, DamageType.toMask(types));
+    }
+
+    /**
+     * Used to register an attack.
+     *
+     * @param damage   The attack damage
+     * @param element  If this is an elemental attack
+     * @param typeMask The attack damage types, as a bit mask
+     * @see DamageType#getMask()
+     */
+    public DamageMetadata(double damage, @Nullable Element element, int typeMask) {
+        this.initialPacket = new DamagePacket(damage, element, typeMask);
+        registerPacket(this.initialPacket);
     }
 
+    /**
+     * Damage packets must be registered using {@link #addPacket(DamagePacket)} or
+     * one of the {@code add} methods, and removed using {@link #removePacket(DamagePacket)}
+     * so that damage totals are kept up to date.
+     *
+     * @return An unmodifiable view of the registered damage packets
+     */
     public List<DamagePacket> getPackets() {
-        return this.packets;
+        checkNotRecycled();
+        return this.packetsView;
     }
 
     public @Nullable DamagePacket getInitialPacket() {
@@ -96,45 +151,54 @@ public class DamageMetadata implements Cloneable {
     public static final double MINIMAL_DAMAGE = 0.01;
 
     public double getDamage() {
-        double d = 0;
-
-        for (DamagePacket packet : this.packets) {
-            d += packet.getFinalValue();
-        }
-        return Math.max(MINIMAL_DAMAGE, d);
+        computeTotals();
+        return Math.max(MINIMAL_DAMAGE, this.totalDamage);
     }
 
     /**
      * @param element If null, non-elemental damage will be returned.
      */
     public double getDamage(@Nullable Element element) {
-        double d = 0;
-
-        for (DamagePacket packet : this.packets) {
-            if (Objects.equals(packet.getElement(), element))
-                d += packet.getFinalValue();
-        }
-        return d;
+        computeTotals();
+        return this.elementDamage[element == null ? NON_ELEMENTAL : element.ordinal()];
     }
 
     public double getDamage(DamageType type) {
+        computeTotals();
+        return this.typeDamage[type.ordinal()];
+    }
+
+    /**
+     * @param typeMask The damage types, as a bit mask
+     * @return The damage of all the packets having any of the damage types
+     */
+    public double getDamage(int typeMask) {
+        // packets with several of the types must only be counted once
+        if (Integer.bitCount(typeMask & ALL_TYPES) == 1) {
+            computeTotals();
+            return this.typeDamage[Integer.numberOfTrailingZeros(typeMask & ALL_TYPES)];
+        }
+
         double d = 0;
 
         for (DamagePacket packet : this.packets) {
-            if (packet.hasType(type))
+            if (packet.hasAnyType(typeMask))
                 d += packet.getFinalValue();
         }
         return d;
     }
 
+    /**
+     * The returned map is a read-only view backed by the damage
+     * totals of this metadata, it does not need to be copied.
+     *
+     * @return Damage dealt by every element found in the damage packets
+     */
     public Map<Element, Double> mapElementalDamage() {
-        Map<Element, Double> mapped = new HashMap<>();
-
-        for (DamagePacket packet : this.packets) {
-            if (packet.getElement() != null)
-                mapped.put(packet.getElement(), mapped.getOrDefault(packet.getElement(), 0d) + packet.getFinalValue());
+        if (this.elementalDamageView == null) {
+            this.elementalDamageView = new ElementalDamageView();
         }
-        return mapped;
+        return this.elementalDamageView;
     }
 
     /**
@@ -142,12 +206,26 @@ public class DamageMetadata implements Cloneable {
      * in all the different damage packets.
      */
     public Set<DamageType> collectTypes() {
-        Set<DamageType> collected = new HashSet<>();
+        return DamageType.toSet(getTypeMask());
+    }
 
-        for (DamagePacket packet : this.packets) {
-            Collections.addAll(collected, packet.getTypes());
-        }
-        return collected;
+    /**
+     * @return Bit mask containing all the damage types found
+     * in all the different damage packets.
+     */
+    public int getTypeMask() {
+        computeTotals();
+        return this.typeMask;
+    }
+
+    /**
+     * @return Bit mask containing all the elements found in all the different damage
+     * packets, by element ordinal. The bit following the last element is set when
+     * non-elemental damage was found.
+     */
+    public int getElementMask() {
+        computeTotals();
+        return this.elementMask;
     }
 
     /**
@@ -155,11 +233,12 @@ public class DamageMetadata implements Cloneable {
      * in all the different damage packets.
      */
     public Set<Element> collectElements() {
-        Set<Element> collected = new HashSet<>();
+        computeTotals();
+        Set<Element> collected = EnumSet.noneOf(Element.class);
 
-        for (DamagePacket packet : this.packets) {
-            if (packet.getElement() != null)
-                collected.add(packet.getElement());
+        for (Element element : ELEMENTS) {
+            if ((this.elementMask & 1 << element.ordinal()) != 0)
+                collected.add(element);
         }
         return collected;
     }
@@ -169,11 +248,7 @@ public class DamageMetadata implements Cloneable {
      * see if any has this damage type.
      */
     public boolean hasType(DamageType type) {
-        for (DamagePacket packet : this.packets) {
-            if (packet.hasType(type))
-                return true;
-        }
-        return false;
+        return (getTypeMask() & type.getMask()) != 0;
     }
 
     /**
@@ -182,11 +257,8 @@ public class DamageMetadata implements Cloneable {
      * see if any has this element.
      */
     public boolean hasElement(@Nullable Element element) {
-        for (DamagePacket packet : this.packets) {
-            if (Objects.equals(packet.getElement(), element))
-                return true;
-        }
-        return false;
+        computeTotals();
+        return (this.elementMask & 1 << (element == null ? NON_ELEMENTAL : element.ordinal())) != 0;
     }
 
     /**
@@ -198,7 +270,7 @@ public class DamageMetadata implements Cloneable {
      * @return The same modified damage metadata
      */
     public DamageMetadata add(double value, DamageType... types) {
-        this.packets.add(new DamagePacket(value, types));
+        registerPacket(new DamagePacket(value, types));
         return this;
     }
 
@@ -212,10 +284,129 @@ public class DamageMetadata implements Cloneable {
      * @return The same modified damage metadata
      */
     public DamageMetadata add(double value, @Nullable Element element, DamageType... types) {
-        this.packets.add(new DamagePacket(value, element, types));
+        registerPacket(new DamagePacket(value, element, types));
+        return this;
+    }
+
+    /**
+     * Registers a new elemental damage packet.
+     *
+     * @param value    Damage dealt by another source, this could be an on-hit
+     *                 skill increasing the damage of the current attack.
+     * @param element  The element
+     * @param typeMask The damage types of the packet being registered, as a bit mask
+     * @return The same modified damage metadata
+     */
+    public DamageMetadata add(double value, @Nullable Element element, int typeMask) {
+        registerPacket(new DamagePacket(value, element, typeMask));
+        return this;
+    }
+
+    /**
+     * Registers an existing damage packet.
+     *
+     * @param packet The damage packet, which must not be registered in any damage metadata
+     * @return The same modified damage metadata
+     */
+    public DamageMetadata addPacket(DamagePacket packet) {
+        Preconditions.checkArgument(packet.getOwner() == null, "Damage packet is already registered");
+        registerPacket(packet);
         return this;
     }
 
+    /**
+     * Unregisters a damage packet.
+     *
+     * @param packet The damage packet
+     * @return If the packet was registered in this damage metadata
+     */
+    public boolean removePacket(DamagePacket packet) {
+        checkNotRecycled();
+        if (packet.getOwner() != this || !this.packets.remove(packet)) {
+            return false;
+        }
+        packet.setOwner(null);
+        if (this.initialPacket == packet) {
+            this.initialPacket = null;
+        }
+        invalidate();
+        return true;
+    }
+
+    private void registerPacket(DamagePacket packet) {
+        checkNotRecycled();
+        packet.setOwner(this);
+        this.packets.add(packet);
+        invalidate();
+    }
+
+    /**
+     * Called whenever a damage packet is registered, or when the value or
+     * the modifiers of one of the registered packets change.
+     */
+    void invalidate() {
+        this.dirty = true;
+    }
+
+    void init(DamagePacket initialPacket) {
+        this.recycled = false;
+        this.initialPacket = initialPacket;
+        registerPacket(initialPacket);
+    }
+
+    /**
+     * @return The registered damage packets, so that they can be recycled as well
+     */
+    List<DamagePacket> recycle() {
+        this.initialPacket = null;
+        this.weaponCrit = false;
+        this.skillCrit = false;
+        this.elementalCrit.clear();
+        this.dirty = true;
+        this.recycled = true;
+        return this.packets;
+    }
+
+    private void checkNotRecycled() {
+        if (this.recycled) {
+            throw new IllegalStateException("Damage metadata was used after being recycled");
+        }
+    }
+
+    private void computeTotals() {
+        checkNotRecycled();
+        if (!this.dirty) {
+            return;
+        }
+
+        double total = 0;
+        int elementMask = 0;
+        int typeMask = 0;
+        Arrays.fill(this.elementDamage, 0);
+        Arrays.fill(this.typeDamage, 0);
+
+        for (DamagePacket packet : this.packets) {
+            double value = packet.getFinalValue();
+            total += value;
+
+            @Nullable Element element = packet.getElement();
+            int elementIndex = element == null ? NON_ELEMENTAL : element.ordinal();
+            this.elementDamage[elementIndex] += value;
+            elementMask |= 1 << elementIndex;
+
+            int packetTypes = packet.getTypeMask() & ALL_TYPES;
+            typeMask |= packetTypes;
+            for (; packetTypes != 0; packetTypes &= packetTypes - 1) {
+                this.typeDamage[Integer.numberOfTrailingZeros(packetTypes)] += value;
+            }
+        }
+
+        this.totalDamage = total;
+        this.elementMask = elementMask;
+        this.typeMask = typeMask;
+        this.dirty = false;
+    }
+
     /**
      * Register a multiplicative damage modifier in all damage packets.
      * <p>
@@ -319,8 +510,77 @@ public class DamageMetadata implements Cloneable {
         DamageMetadata clone = new DamageMetadata();
 
         for (DamagePacket packet : this.packets) {
-            clone.packets.add(packet.clone());
+            clone.registerPacket(packet.clone());
         }
         return clone;
     }
+
+    /**
+     * Read-only view of the elemental damage totals.
+     */
+    private final class ElementalDamageView extends AbstractMap<Element, Double> {
+
+        private boolean isPresent(Element element) {
+            computeTotals();
+            return (DamageMetadata.this.elementMask & 1 << element.ordinal()) != 0;
+        }
+
+        @Override
+        public Double get(Object key) {
+            return key instanceof Element && isPresent((Element) key)
+                    ? DamageMetadata.this.elementDamage[((Element) key).ordinal()]
+                    : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Element && isPresent((Element) key);
+        }
+
+        @Override
+        public int size() {
+            computeTotals();
+            return Integer.bitCount(DamageMetadata.this.elementMask & ~(1 << NON_ELEMENTAL));
+        }
+
+        @Override
+        public Set<Entry<Element, Double>> entrySet() {
+            return new AbstractSet<Entry<Element, Double>>() {
+
+                @Override
+                public Iterator<Entry<Element, Double>> iterator() {
+                    return new Iterator<Entry<Element, Double>>() {
+                        private int index = next(0);
+
+                        private int next(int from) {
+                            while (from < ELEMENTS.length && !isPresent(ELEMENTS[from])) {
+                                from++;
+                            }
+                            return from;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return this.index < ELEMENTS.length;
+                        }
+
+                        @Override
+                        public Entry<Element, Double> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Element element = ELEMENTS[this.index];
+                            this.index = next(this.index + 1);
+                            return new SimpleImmutableEntry<>(element, DamageMetadata.this.elementDamage[element.ordinal()]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return ElementalDamageView.this.size();
+                }
+            };
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package me.kubbidev.multiversus.core.damage;
+
+import com.google.common.base.Preconditions;
+import me.kubbidev.multiversus.core.util.EquipmentSlot;
+import org.bukkit.entity.LivingEntity;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Describes a damage over time effect such as bleeding, burning or poison.
+ * <p>
+ * Effects are applied to entities through the
+ * {@link me.kubbidev.multiversus.core.manager.DamageOverTimeManager}, which deals
+ * their damage every {@link #getPeriod()} ticks until their duration runs out.
+ * <p>
+ * Applying an effect with the same id from the same attacker on an entity which is
+ * already affected adds a stack instead, up to {@link #getMaxStacks()}, and refreshes
+ * its duration. Damage is multiplied by the amount of stacks.
+ * <p>
+ * Effects only keep the attacker entity, a new {@link EntityMetadata} is
+ * built every time the effect deals damage.
+ */
+public final class DamageOverTime {
+    private final String id;
+
+    @Nullable
+    private final LivingEntity attacker;
+    private final EquipmentSlot actionHand;
+
+    private final double damage;
+
+    @Nullable
+    private final Element element;
+
+    private final int typeMask;
+    private final int period;
+    private final int duration;
+    private final int maxStacks;
+
+    /**
+     * @param id        The identifier of the effect, used for stacking
+     * @param attacker  The entity who applied the effect, if any
+     * @param damage    The damage dealt every period, for one stack
+     * @param element   The damage element applied
+     * @param period    The amount of ticks between two damage applications
+     * @param duration  The amount of ticks the effect lasts
+     * @param maxStacks The maximum amount of stacks of the effect
+     * @param types     The type of damage inflicted, {@link DamageType#DOT} is always included
+     */
+    public DamageOverTime(String id, @Nullable EntityMetadata attacker, double damage, @Nullable Element element,
+                          int period, int duration, int maxStacks, DamageType... types) {
+        this(id, attacker == null ? null : attacker.getEntity(), attacker == null ? EquipmentSlot.MAIN_HAND : attacker.getActionHand(),
+                damage, element, period, duration, maxStacks, types);
+    }
+
+    /**
+     * @param id         The identifier of the effect, used for stacking
+     * @param attacker   The entity who applied the effect, if any
+     * @param actionHand The hand the attacker applied the effect with
+     * @param damage     The damage dealt every period, for one stack
+     * @param element    The damage element applied
+     * @param period     The amount of ticks between two damage applications
+     * @param duration   The amount of ticks the effect lasts
+     * @param maxStacks  The maximum amount of stacks of the effect
+     * @param types      The type of damage inflicted, {@link DamageType#DOT} is always included
+     */
+    public DamageOverTime(String id, @Nullable LivingEntity attacker, EquipmentSlot actionHand, double damage, @Nullable Element element,
+                          int period, int duration, int maxStacks, DamageType... types) {
+        Preconditions.checkArgument(actionHand.isHand(), "Equipment slot must be a hand");
+        Preconditions.checkArgument(damage > 0, "Damage must be strictly positive");
+        Preconditions.checkArgument(period > 0, "Period must be strictly positive");
+        Preconditions.checkArgument(duration >= period, "Duration must be at least one period");
+        Preconditions.checkArgument(maxStacks > 0, "Max stacks must be strictly positive");
+        this.id = Objects.requireNonNull(id, "id");
+        this.attacker = attacker;
+        this.actionHand = actionHand;
+        this.damage = damage;
+        this.element = element;
+        this.typeMask = DamageType.toMask(types) | DamageType.DOT.getMask();
+        this.period = period;
+        this.duration = duration;
+        this.maxStacks = maxStacks;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public @Nullable LivingEntity getAttacker() {
+        return this.attacker;
+    }
+
+    public EquipmentSlot getActionHand() {
+        return this.actionHand;
+    }
+
+    public double getDamage() {
+        return this.damage;
+    }
+
+    public @Nullable Element getElement() {
+        return this.element;
+    }
+
+    public int getTypeMask() {
+        return this.typeMask;
+    }
+
+    public int getPeriod() {
+        return this.period;
+    }
+
+    public int getDuration() {
+        return this.duration;
+    }
+
+    public int getMaxStacks() {
+        return this.maxStacks;
+    }
+
+    /**
+     * @param other Another damage over time effect
+     * @return If both effects stack together, that is when they share the
+     * same id and were applied by the same entity
+     */
+    public boolean stacksWith(DamageOverTime other) {
+        if (!this.id.equals(other.id)) {
+            return false;
+        }
+        if (this.attacker == null || other.attacker == null) {
+            return this.attacker == other.attacker;
+        }
+        return this.attacker.equals(other.attacker);
+    }
+}
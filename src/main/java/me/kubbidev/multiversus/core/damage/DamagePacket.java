@@ -5,7 +5,12 @@ import org.jetbrains.annotations.Nullable;
 
 public class DamagePacket implements Cloneable {
 
-    private DamageType[] types;
+    /**
+     * Damage types of this packet, stored as a bit mask.
+     *
+     * @see DamageType#getMask()
+     */
+    private int typeMask;
 
     private double value;
     private double additiveModifiers;
@@ -14,22 +19,51 @@ public class DamagePacket implements Cloneable {
     @Nullable
     private Element element;
 
+    /**
+     * The damage metadata this packet is registered in, notified
+     * whenever the packet changes so that it can update its damage totals.
+     */
+    @Nullable
+    private DamageMetadata owner;
+
+    /**
+     * If this packet was given back to its pool and must no longer be used.
+     */
+    private boolean recycled;
+
     public DamagePacket(double value, DamageType... types) {
         this(value, null, types);
     }
 
     public DamagePacket(double value, @Nullable Element element, DamageType... types) {
+        this(value, element, DamageType.toMask(types));
+    }
+
+    public DamagePacket(double value, @Nullable Element element, int typeMask) {
         this.value = value;
-        this.types = types;
+        this.typeMask = typeMask;
         this.element = element;
     }
 
+    /**
+     * @return A new array containing the damage types of this packet
+     */
     public DamageType[] getTypes() {
-        return this.types;
+        return DamageType.fromMask(this.typeMask);
     }
 
     public void setTypes(DamageType[] types) {
-        this.types = types;
+        this.typeMask = DamageType.toMask(types);
+        invalidate();
+    }
+
+    public int getTypeMask() {
+        return this.typeMask;
+    }
+
+    public void setTypeMask(int typeMask) {
+        this.typeMask = typeMask;
+        invalidate();
     }
 
     public double getValue() {
@@ -44,6 +78,7 @@ public class DamagePacket implements Cloneable {
     public void setValue(double value) {
         Preconditions.checkArgument(value >= 0, "Value cannot be negative");
         this.value = value;
+        invalidate();
     }
 
     public @Nullable Element getElement() {
@@ -52,6 +87,7 @@ public class DamagePacket implements Cloneable {
 
     public void setElement(@Nullable Element element) {
         this.element = element;
+        invalidate();
     }
 
     /**
@@ -66,10 +102,48 @@ public class DamagePacket implements Cloneable {
     public void multiplicativeModifier(double coefficient) {
         Preconditions.checkArgument(coefficient >= 0, "Coefficient cannot be negative");
         this.multiplicativeModifiers *= coefficient;
+        invalidate();
     }
 
     public void additiveModifier(double multiplier) {
         this.additiveModifiers += multiplier;
+        invalidate();
+    }
+
+    @Nullable DamageMetadata getOwner() {
+        return this.owner;
+    }
+
+    void setOwner(@Nullable DamageMetadata owner) {
+        this.owner = owner;
+    }
+
+    void init(double value, @Nullable Element element, int typeMask) {
+        this.value = value;
+        this.element = element;
+        this.typeMask = typeMask;
+        this.additiveModifiers = 0;
+        this.multiplicativeModifiers = 1;
+        this.owner = null;
+        this.recycled = false;
+    }
+
+    void recycle() {
+        this.owner = null;
+        this.recycled = true;
+    }
+
+    private void checkNotRecycled() {
+        if (this.recycled) {
+            throw new IllegalStateException("Damage packet was used after being recycled");
+        }
+    }
+
+    private void invalidate() {
+        checkNotRecycled();
+        if (this.owner != null) {
+            this.owner.invalidate();
+        }
     }
 
     /**
@@ -77,6 +151,7 @@ public class DamagePacket implements Cloneable {
      * all the damage modifiers that have been registered
      */
     public double getFinalValue() {
+        checkNotRecycled();
         // Make sure the returned value is positive
         return this.value * Math.max(0, 1 + this.additiveModifiers) * this.multiplicativeModifiers;
     }
@@ -85,20 +160,23 @@ public class DamagePacket implements Cloneable {
      * @return Checks if the current packet has that damage type
      */
     public boolean hasType(DamageType type) {
-        for (DamageType checked : this.types) {
-            if (checked == type)
-                return true;
-        }
-        return false;
+        return (this.typeMask & type.getMask()) != 0;
+    }
+
+    /**
+     * @param typeMask The damage types to look for
+     * @return Checks if the current packet has any of the damage types
+     */
+    public boolean hasAnyType(int typeMask) {
+        return (this.typeMask & typeMask) != 0;
     }
 
     @SuppressWarnings("MethodDoesntCallSuperMethod")
     @Override
     public DamagePacket clone() {
-        DamagePacket clone = new DamagePacket(this.value, this.types);
+        DamagePacket clone = new DamagePacket(this.value, this.element, this.typeMask);
         clone.additiveModifiers = this.additiveModifiers;
         clone.multiplicativeModifiers = this.multiplicativeModifiers;
-        clone.element = this.element;
         return clone;
     }
 
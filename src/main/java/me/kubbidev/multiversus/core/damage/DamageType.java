@@ -1,5 +1,8 @@
 package me.kubbidev.multiversus.core.damage;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum DamageType {
     /**
      * Magic damage dealt by magic weapons or abilities
@@ -28,5 +31,63 @@ public enum DamageType {
     /**
      * Damage over time
      */
-    DOT
+    DOT;
+
+    /**
+     * Cached enum values, used to avoid copying the array returned by {@link #values()}.
+     */
+    private static final DamageType[] VALUES = values();
+
+    /**
+     * Bit representing this damage type inside of a type mask.
+     */
+    private final int mask = 1 << ordinal();
+
+    /**
+     * @return The bit representing this damage type inside of a type mask
+     */
+    public int getMask() {
+        return this.mask;
+    }
+
+    /**
+     * @param types The damage types
+     * @return Type mask containing all the given damage types
+     */
+    public static int toMask(DamageType... types) {
+        int mask = 0;
+        for (DamageType type : types) {
+            mask |= type.mask;
+        }
+        return mask;
+    }
+
+    /**
+     * @param mask The type mask
+     * @return A new array containing all the damage types of the mask
+     */
+    public static DamageType[] fromMask(int mask) {
+        DamageType[] types = new DamageType[Integer.bitCount(mask & ((1 << VALUES.length) - 1))];
+
+        int i = 0;
+        for (DamageType type : VALUES) {
+            if ((mask & type.mask) != 0)
+                types[i++] = type;
+        }
+        return types;
+    }
+
+    /**
+     * @param mask The type mask
+     * @return A new set containing all the damage types of the mask
+     */
+    public static Set<DamageType> toSet(int mask) {
+        Set<DamageType> types = EnumSet.noneOf(DamageType.class);
+
+        for (DamageType type : VALUES) {
+            if ((mask & type.mask) != 0)
+                types.add(type);
+        }
+        return types;
+    }
 }
\ No newline at end of file
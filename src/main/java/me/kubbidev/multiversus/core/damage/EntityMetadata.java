@@ -7,9 +7,20 @@ import org.bukkit.entity.LivingEntity;
 import org.jetbrains.annotations.Nullable;
 
 public class EntityMetadata {
-    private final FBukkitPlugin plugin;
-    private final LivingEntity entity;
-    private final EquipmentSlot actionHand;
+    private FBukkitPlugin plugin;
+    private LivingEntity entity;
+    private EquipmentSlot actionHand;
+
+    /**
+     * If this metadata was provided by an {@link AttackPool}, in which
+     * case it is given back to the pool along with its attack.
+     */
+    private boolean pooled;
+
+    /**
+     * If this metadata was given back to its pool and must no longer be used.
+     */
+    private boolean recycled;
 
     public EntityMetadata(FBukkitPlugin plugin, LivingEntity entity, EquipmentSlot actionHand) {
         Preconditions.checkArgument(actionHand.isHand(), "Equipment slot must be a hand");
@@ -23,13 +34,52 @@ public class EntityMetadata {
     }
 
     public LivingEntity getEntity() {
+        checkNotRecycled();
         return this.entity;
     }
 
     public EquipmentSlot getActionHand() {
+        checkNotRecycled();
         return this.actionHand;
     }
 
+    public boolean isPooled() {
+        return this.pooled;
+    }
+
+    /**
+     * Prevents this metadata from being given back to its {@link AttackPool} along with
+     * its attack, so that references to it can be kept after the damage event.
+     *
+     * @return This metadata
+     * @see AttackMetadata#retain()
+     */
+    public EntityMetadata retain() {
+        checkNotRecycled();
+        this.pooled = false;
+        return this;
+    }
+
+    void init(FBukkitPlugin plugin, LivingEntity entity, EquipmentSlot actionHand) {
+        Preconditions.checkArgument(actionHand.isHand(), "Equipment slot must be a hand");
+        this.plugin = plugin;
+        this.entity = entity;
+        this.actionHand = actionHand;
+        this.pooled = true;
+        this.recycled = false;
+    }
+
+    void recycle() {
+        this.entity = null;
+        this.recycled = true;
+    }
+
+    private void checkNotRecycled() {
+        if (this.recycled) {
+            throw new IllegalStateException("Entity metadata was used after being recycled");
+        }
+    }
+
     /**
      * Utility method that makes an entity deal damage to another specific entity.
      * <p>
@@ -75,6 +125,7 @@ public class EntityMetadata {
      * @return The (modified) attack metadata
      */
     public AttackMetadata attack(LivingEntity target, double damage, boolean knockback, @Nullable Element element, DamageType... types) {
+        checkNotRecycled();
         @Nullable AttackMetadata registeredAttack = this.plugin.getDamageManager().getRegisteredAttackMetadata(target);
         if (registeredAttack != null) {
             registeredAttack.getMetadata().add(damage, element, types);
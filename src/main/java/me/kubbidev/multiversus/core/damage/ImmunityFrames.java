@@ -0,0 +1,164 @@
+package me.kubbidev.multiversus.core.damage;
+
+import java.util.Arrays;
+
+/**
+ * Immunity frames tracked per (source, target) pair instead of per target.
+ * <p>
+ * Vanilla immunity frames are global to the damaged entity, so two players hitting the
+ * same entity during the same ticks block each other. Here, an entity is only immune to
+ * the source which last damaged it, for the given amount of ticks.
+ * <p>
+ * Pairs are stored in an open addressing table using primitive {@code long} keys built from
+ * the entity ids, along with the tick at which they expire. Expired pairs are never removed
+ * individually, their slots are reused by later insertions and dropped on resize.
+ * <p>
+ * This class is thread safe, every access to the table is synchronized so that
+ * damage events can be handled by several threads.
+ */
+public final class ImmunityFrames {
+    /**
+     * Source id of the damage which is not dealt by any entity.
+     */
+    public static final int ENVIRONMENT = -1;
+
+    private static final int MIN_CAPACITY = 64;
+
+    /**
+     * Amount of ticks during which a target is immune to a source after being damaged.
+     */
+    private final int duration;
+
+    private long[] keys;
+
+    /**
+     * Tick at which the pair expire, {@code 0} marks an empty slot.
+     */
+    private long[] expiries;
+
+    /**
+     * Amount of non empty slots, expired or not.
+     */
+    private int size;
+
+    public ImmunityFrames(int duration) {
+        this.duration = duration;
+        this.keys = new long[MIN_CAPACITY];
+        this.expiries = new long[MIN_CAPACITY];
+    }
+
+    /**
+     * @param source The entity id of the damage source
+     * @param target The entity id of the damaged entity
+     * @return The key identifying the pair
+     */
+    public static long key(int source, int target) {
+        return ((long) source << 32) | (target & 0xFFFFFFFFL);
+    }
+
+    public int getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * @param key  The key of the (source, target) pair
+     * @param tick The current server tick
+     * @return If the target is still immune to the source
+     */
+    public synchronized boolean isImmune(long key, long tick) {
+        int mask = this.keys.length - 1;
+        for (int i = mix(key) & mask; this.expiries[i] != 0; i = (i + 1) & mask) {
+            if (this.keys[i] == key) {
+                return this.expiries[i] > tick;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes the target immune to the source for the configured duration.
+     *
+     * @param key  The key of the (source, target) pair
+     * @param tick The current server tick
+     */
+    public synchronized void mark(long key, long tick) {
+        long expiry = tick + this.duration;
+
+        int mask = this.keys.length - 1;
+        int free = -1;
+        int i = mix(key) & mask;
+        for (; this.expiries[i] != 0; i = (i + 1) & mask) {
+            if (this.keys[i] == key) {
+                this.expiries[i] = expiry;
+                return;
+            }
+            // the slot of an expired pair can be reused as long as the
+            // key is not present further in the probe sequence
+            if (free == -1 && this.expiries[i] <= tick) {
+                free = i;
+            }
+        }
+
+        if (free != -1) {
+            this.keys[free] = key;
+            this.expiries[free] = expiry;
+            return;
+        }
+
+        this.keys[i] = key;
+        this.expiries[i] = expiry;
+        if (++this.size > (this.keys.length >> 1) + (this.keys.length >> 2)) {
+            rehash(tick);
+        }
+    }
+
+    /**
+     * Removes every pair, making all entities vulnerable again.
+     */
+    public synchronized void clear() {
+        Arrays.fill(this.expiries, 0);
+        this.size = 0;
+    }
+
+    private void rehash(long tick) {
+        long[] oldKeys = this.keys;
+        long[] oldExpiries = this.expiries;
+
+        int alive = 0;
+        for (long expiry : oldExpiries) {
+            if (expiry > tick) {
+                alive++;
+            }
+        }
+
+        // keep the table at most half full once expired pairs are dropped
+        int capacity = MIN_CAPACITY;
+        while (capacity < alive * 4) {
+            capacity <<= 1;
+        }
+
+        long[] keys = new long[capacity];
+        long[] expiries = new long[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldExpiries[j] <= tick) {
+                continue;
+            }
+            int i = mix(oldKeys[j]) & mask;
+            while (expiries[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            expiries[i] = oldExpiries[j];
+        }
+
+        this.keys = keys;
+        this.expiries = expiries;
+        this.size = alive;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
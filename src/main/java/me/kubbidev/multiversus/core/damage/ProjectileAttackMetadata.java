@@ -8,7 +8,7 @@ import org.jetbrains.annotations.Nullable;
  * Used by attacks caused by projectiles like ranged skills or weapon attacks with bows, crossbows or tridents.
  */
 public class ProjectileAttackMetadata extends AttackMetadata {
-    private final Projectile projectile;
+    private Projectile projectile;
 
     /**
      * Used by {@link AttackHandler} instances to register attacks.
@@ -30,6 +30,18 @@ public class ProjectileAttackMetadata extends AttackMetadata {
     }
 
     public Projectile getProjectile() {
+        checkNotRecycled();
         return this.projectile;
     }
+
+    void init(DamageMetadata metadata, LivingEntity target, @Nullable EntityMetadata attacker, Projectile projectile) {
+        init(metadata, target, attacker);
+        this.projectile = projectile;
+    }
+
+    @Override
+    void recycle() {
+        super.recycle();
+        this.projectile = null;
+    }
 }
\ No newline at end of file
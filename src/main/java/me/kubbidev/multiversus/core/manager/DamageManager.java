@@ -1,16 +1,16 @@
 package me.kubbidev.multiversus.core.manager;
 
+import com.destroystokyo.paper.event.entity.EntityKnockbackByEntityEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import me.kubbidev.multiversus.FBukkitPlugin;
+import me.kubbidev.multiversus.config.ConfigKeys;
 import me.kubbidev.multiversus.core.UtilityMethod;
 import me.kubbidev.multiversus.core.damage.*;
 import me.kubbidev.multiversus.core.event.attack.AttackUnregisteredEvent;
 import me.kubbidev.multiversus.core.util.EquipmentSlot;
 import me.kubbidev.multiversus.plugin.MultiPlugin;
-import org.bukkit.attribute.Attribute;
-import org.bukkit.attribute.AttributeInstance;
-import org.bukkit.attribute.AttributeModifier;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Projectile;
@@ -24,39 +24,144 @@ import org.bukkit.projectiles.ProjectileSource;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Central piece of the damage system.
  */
 public final class DamageManager implements Listener {
     /**
-     * Attribute modifier used to cancel the knockback the entity receive when being damaged.
+     * Damage type masks of the vanilla attacks which do not depend on the damage cause.
      */
-    private static final AttributeModifier NO_KNOCKBACK = new AttributeModifier(UUID.randomUUID(), "noKnockback", 100, AttributeModifier.Operation.ADD_NUMBER);
+    private static final int PHYSICAL_ATTACK = DamageType.toMask(DamageType.PHYSICAL);
+    private static final int UNARMED_ATTACK = DamageType.toMask(DamageType.UNARMED, DamageType.PHYSICAL);
+    private static final int WEAPON_ATTACK = DamageType.toMask(DamageType.WEAPON, DamageType.PHYSICAL);
+    private static final int PROJECTILE_ATTACK = DamageType.toMask(DamageType.WEAPON, DamageType.PHYSICAL, DamageType.PROJECTILE);
+
+    /**
+     * Damage type masks of vanilla attacks, indexed by damage cause ordinal.
+     * <p>
+     * They are computed once so that no array has to be allocated on every damage event.
+     */
+    private static final int[] VANILLA_DAMAGE_TYPES;
+
+    /**
+     * Cached damage causes, used to avoid copying the array returned by {@link EntityDamageEvent.DamageCause#values()}.
+     */
+    private static final EntityDamageEvent.DamageCause[] DAMAGE_CAUSES = EntityDamageEvent.DamageCause.values();
+
+    static {
+        VANILLA_DAMAGE_TYPES = new int[DAMAGE_CAUSES.length];
+
+        for (EntityDamageEvent.DamageCause cause : DAMAGE_CAUSES) {
+            VANILLA_DAMAGE_TYPES[cause.ordinal()] = computeVanillaDamageTypes(cause);
+        }
+    }
 
     /**
      * The singleton plugin instance.
      */
     private final FBukkitPlugin plugin;
 
+    /**
+     * Provides the attack objects created for vanilla attacks, and
+     * recycles them once unregistered if enabled.
+     */
+    private final AttackPool attackPool;
+
+    /**
+     * Immunity frames tracked per damage source, or null if vanilla
+     * immunity frames are used.
+     */
+    @Nullable
+    private final ImmunityFrames immunityFrames;
+
     /**
      * External attack handlers.
      */
     private final List<AttackHandler> handlers = new ArrayList<>();
 
+    /**
+     * External attack handlers indexed by the ordinal of the damage causes they
+     * should be consulted for, in registration order.
+     * <p>
+     * Rebuilt every time a handler is registered.
+     */
+    private volatile HandlerEntry[][] handlerTable = new HandlerEntry[DAMAGE_CAUSES.length][0];
+
     /**
      * There is an issue with metadata not being garbage-collected on mobs.
      * It looks like persistent data containers do also suffer from that issue.
      * <p>
-     * Switched back to using a weak hash map to save the current attack
-     * metadata for a mob.
+     * The current attack metadata of every entity is saved in a concurrent map
+     * keyed by entity id, so that damage events can be handled by several threads.
+     * <p>
+     * Entries are removed as soon as damage is dealt, or when the entity is
+     * removed from its world if something went wrong.
+     */
+    private final Map<Integer, AttackMetadata> attackMetadataMap = new ConcurrentHashMap<>();
+
+    /**
+     * Amount of attacks which were registered while another attack was
+     * already registered on the same entity.
+     */
+    private final LongAdder contentionCount = new LongAdder();
+
+    /**
+     * Amount of attacks which were still registered when their target
+     * was removed from its world.
+     */
+    private final LongAdder leakCount = new LongAdder();
+
+    /**
+     * Combat logs of the entities which received damage, by entity id.
+     */
+    private final Map<Integer, CombatLog> combatLogs = new ConcurrentHashMap<>();
+
+    /**
+     * Capacity of the combat logs, combat logs are disabled if not strictly positive.
+     */
+    private final int combatLogSize;
+
+    /**
+     * Attack currently being applied on every thread, used to tell the outcome of
+     * the attacks registered through {@link #registerAttack(AttackMetadata, double, boolean)}.
+     * <p>
+     * Attacks can be nested, so every applied attack restores the frame it found once
+     * its outcome is known. Outside of any applied attack, the frame holds no attack.
+     */
+    private final ThreadLocal<ApplyFrame> applyFrames = ThreadLocal.withInitial(ApplyFrame::new);
+
+    /**
+     * Knockback multipliers of the attacks currently being applied, by target.
+     */
+    private final Map<Integer, Double> knockbackMultipliers = new ConcurrentHashMap<>();
+
+    /**
+     * Targets of the attacks currently being applied which do not produce
+     * immunity frames, when tracked per damage source.
+     */
+    private final Set<Integer> immunityBypass = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Maximum no damage ticks of the entities whose vanilla immunity frames were
+     * disabled, when tracked per damage source.
      * <p>
-     * Weak hash maps are great for garbage collection.
+     * They are given back once the entity leaves its world or the plugin is disabled.
      */
-    private final Map<UUID, AttackMetadata> attackMetadataMap = new WeakHashMap<>();
+    private final Map<LivingEntity, Integer> maximumNoDamageTicks = new ConcurrentHashMap<>();
 
     public DamageManager(FBukkitPlugin plugin) {
         this.plugin = plugin;
+        this.attackPool = new AttackPool(
+                plugin.getConfiguration().get(ConfigKeys.ATTACK_RECYCLING_ENABLED),
+                plugin.getConfiguration().get(ConfigKeys.ATTACK_RECYCLING_DEBUG)
+        );
+        this.combatLogSize = plugin.getConfiguration().get(ConfigKeys.COMBAT_LOG_SIZE);
+        this.immunityFrames = plugin.getConfiguration().get(ConfigKeys.PER_SOURCE_IMMUNITY_ENABLED)
+                ? new ImmunityFrames(plugin.getConfiguration().get(ConfigKeys.PER_SOURCE_IMMUNITY_TICKS))
+                : null;
     }
 
     /**
@@ -72,6 +177,8 @@ public final class DamageManager implements Listener {
      * <p>
      * While Multiversus does clean up the entity metadata as soon as damage is dealt, vanilla
      * attacks and extra plugins just don't.
+     * <p>
+     * This is also where attacks provided by the {@link AttackPool} are recycled.
      */
     @EventHandler(priority = EventPriority.MONITOR)
     public void unregisterCustomAttacks(EntityDamageEvent e) {
@@ -82,13 +189,90 @@ public final class DamageManager implements Listener {
         if (e.getEntity() instanceof LivingEntity) {
             @Nullable AttackMetadata attack = unmarkAsMetadata(e.getEntity());
 
-            if (attack != null && !e.isCancelled() && e.getFinalDamage() > 0) {
-                AttackUnregisteredEvent called = new AttackUnregisteredEvent(e, attack);
-                called.callEvent();
+            if (attack != null) {
+                try {
+                    if (!e.isCancelled() && e.getFinalDamage() > 0) {
+                        ApplyFrame frame = this.applyFrames.get();
+                        if (frame.attack == attack) {
+                            frame.applied = true;
+                        }
+                        markImmunityFrames(e);
+                        recordAttack(e, attack);
+
+                        AttackUnregisteredEvent called = new AttackUnregisteredEvent(e, attack);
+                        called.callEvent();
+                    }
+                } finally {
+                    this.attackPool.recycle(attack);
+                }
             }
         }
     }
 
+    /**
+     * Removes everything still registered for an entity being removed from its world.
+     * <p>
+     * Attacks are normally unregistered once damage is dealt, so an attack found
+     * here has leaked and is only counted.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void cleanupRemovedEntity(EntityRemoveFromWorldEvent e) {
+        int entityId = e.getEntity().getEntityId();
+        this.knockbackMultipliers.remove(entityId);
+        this.immunityBypass.remove(entityId);
+        this.combatLogs.remove(entityId);
+
+        @Nullable Integer maximumNoDamageTicks = this.maximumNoDamageTicks.remove(e.getEntity());
+        if (maximumNoDamageTicks != null) {
+            ((LivingEntity) e.getEntity()).setMaximumNoDamageTicks(maximumNoDamageTicks);
+        }
+
+        @Nullable AttackMetadata attack = this.attackMetadataMap.remove(entityId);
+        if (attack != null) {
+            this.leakCount.increment();
+            this.attackPool.recycle(attack);
+        }
+    }
+
+    /**
+     * @param entity The entity
+     * @return The combat log of the entity, or null if it was not damaged
+     * yet or combat logs are disabled
+     */
+    public @Nullable CombatLog getCombatLog(Entity entity) {
+        return this.combatLogs.get(entity.getEntityId());
+    }
+
+    private void recordAttack(EntityDamageEvent e, AttackMetadata attack) {
+        if (this.combatLogSize <= 0) {
+            return;
+        }
+
+        int entityId = e.getEntity().getEntityId();
+        CombatLog combatLog = this.combatLogs.computeIfAbsent(entityId, id -> new CombatLog(this.combatLogSize));
+
+        DamageMetadata damage = attack.getMetadata();
+        @Nullable EntityMetadata attacker = attack.getAttacker();
+        combatLog.record(attacker == null ? null : attacker.getEntity().getUniqueId(),
+                e.getFinalDamage(), damage.getElementMask(), damage.getTypeMask(), getCurrentTick());
+    }
+
+    /**
+     * @return The amount of attacks registered on an entity which
+     * already had an attack registered.
+     */
+    public long getContentionCount() {
+        return this.contentionCount.sum();
+    }
+
+    /**
+     * @return The amount of attacks which were still registered when
+     * their target was removed from its world.
+     */
+    public long getLeakCount() {
+        return this.leakCount.sum();
+    }
+
     /**
      * {@link AttackHandler}s are used to keep track of details of every
      * attack so that it can apply damage based stats like PvE damage, Magic
@@ -96,15 +280,49 @@ public final class DamageManager implements Listener {
      *
      * @param handler The damage handler being registered.
      */
-    public void registerHandler(AttackHandler handler) {
+    public synchronized void registerHandler(AttackHandler handler) {
         Objects.requireNonNull(handler, "Damage handler cannot be null");
         this.handlers.add(handler);
+
+        List<List<HandlerEntry>> table = new ArrayList<>(DAMAGE_CAUSES.length);
+        for (int i = 0; i < DAMAGE_CAUSES.length; i++) {
+            table.add(new ArrayList<>());
+        }
+
+        for (AttackHandler registered : this.handlers) {
+            HandlerEntry entry = new HandlerEntry(registered);
+
+            @Nullable Set<EntityDamageEvent.DamageCause> causes = registered.getDamageCauses();
+            for (EntityDamageEvent.DamageCause cause : DAMAGE_CAUSES) {
+                if (causes == null || causes.contains(cause)) {
+                    table.get(cause.ordinal()).add(entry);
+                }
+            }
+        }
+
+        HandlerEntry[][] handlerTable = new HandlerEntry[DAMAGE_CAUSES.length][];
+        for (int i = 0; i < DAMAGE_CAUSES.length; i++) {
+            handlerTable[i] = table.get(i).toArray(new HandlerEntry[0]);
+        }
+        this.handlerTable = handlerTable;
     }
 
     public List<AttackHandler> getHandlers() {
         return ImmutableList.copyOf(this.handlers);
     }
 
+    public AttackPool getAttackPool() {
+        return this.attackPool;
+    }
+
+    /**
+     * @return The immunity frames tracked per damage source, or null
+     * if vanilla immunity frames are used.
+     */
+    public @Nullable ImmunityFrames getImmunityFrames() {
+        return this.immunityFrames;
+    }
+
     /**
      * Forces a player to damage an entity with knockback
      *
@@ -134,55 +352,297 @@ public final class DamageManager implements Listener {
      * @param ignoreImmunity The attack will not produce immunity frames.
      */
     public void registerAttack(AttackMetadata attack, boolean knockback, boolean ignoreImmunity) {
-        markAsMetadata(attack);
+        registerAttack(attack, knockback ? 1 : 0, ignoreImmunity);
+    }
 
-        LivingEntity attacker = attack.getAttacker() == null ? null : attack.getAttacker().getEntity();
-        LivingEntity target = attack.getTarget();
+    /**
+     * Deals damage to an entity. Does not do anything if the
+     * damage is negative or null.
+     * <p>
+     * The knockback multiplier scales the knockback dealt by the attack: {@code 1}
+     * keeps the vanilla knockback while {@code 0} or less cancels it entirely.
+     *
+     * @param attack         The class containing all info about the current attack
+     * @param knockback      The knockback multiplier of the attack
+     * @param ignoreImmunity The attack will not produce immunity frames.
+     */
+    public void registerAttack(AttackMetadata attack, double knockback, boolean ignoreImmunity) {
+        applyAttack(attack, knockback, ignoreImmunity);
+    }
+
+    /**
+     * Deals damage to many entities at once, typically the targets of an area of effect skill.
+     * <p>
+     * This behaves like calling {@link #registerAttack(AttackMetadata, boolean, boolean)} for
+     * every attack, except that the outcome of every attack is reported.
+     * <p>
+     * Attacks are applied in the iteration order of the given collection.
+     *
+     * @param attacks        The attacks being registered, one per target
+     * @param knockback      If the attacks should deal knockback
+     * @param ignoreImmunity The attacks will not produce immunity frames.
+     * @return The outcome of every attack, in the same order as the given attacks
+     */
+    public List<AttackOutcome> registerAttacks(Collection<? extends AttackMetadata> attacks, boolean knockback, boolean ignoreImmunity) {
+        return registerAttacks(attacks, knockback ? 1 : 0, ignoreImmunity);
+    }
+
+    /**
+     * Deals damage to many entities at once, typically the targets of an area of effect skill.
+     * <p>
+     * This behaves like calling {@link #registerAttack(AttackMetadata, double, boolean)} for
+     * every attack, except that the outcome of every attack is reported. The knockback and
+     * immunity frames of every target are set up once before any damage is dealt, and cleared
+     * once every target was damaged.
+     * <p>
+     * Attacks are applied in the iteration order of the given collection.
+     *
+     * @param attacks        The attacks being registered, one per target
+     * @param knockback      The knockback multiplier of the attacks
+     * @param ignoreImmunity The attacks will not produce immunity frames.
+     * @return The outcome of every attack, in the same order as the given attacks
+     */
+    public List<AttackOutcome> registerAttacks(Collection<? extends AttackMetadata> attacks, double knockback, boolean ignoreImmunity) {
+        AttackMetadata[] batch = attacks.toArray(new AttackMetadata[0]);
+        AttackOutcome[] outcomes = new AttackOutcome[batch.length];
+        @Nullable Double[] previousKnockbacks = new Double[batch.length];
+        boolean[] prepared = new boolean[batch.length];
+        boolean[] bypassed = new boolean[batch.length];
+
+        boolean checkImmunity = this.immunityFrames != null && !ignoreImmunity;
+        long tick = checkImmunity ? getCurrentTick() : 0;
+
+        // vanilla immunity frames are only bypassed when not tracked per damage source
+        boolean resetNoDamageTicks = ignoreImmunity && this.immunityFrames == null;
+        boolean bypassImmunity = ignoreImmunity && this.immunityFrames != null;
+
+        // every target is prepared at once, immunity frames are checked before any event is called
+        for (int i = 0; i < batch.length; i++) {
+            AttackMetadata attack = batch[i];
+            if (checkImmunity && isImmune(attack, tick)) {
+                outcomes[i] = AttackOutcome.CANCELLED;
+                continue;
+            }
+
+            int entityId = attack.getTarget().getEntityId();
+            previousKnockbacks[i] = this.knockbackMultipliers.put(entityId, knockback);
+            bypassed[i] = bypassImmunity && this.immunityBypass.add(entityId);
+            prepared[i] = true;
+        }
+
+        // attacks can be nested, the frame of the outer attack must be restored
+        ApplyFrame frame = this.applyFrames.get();
+        @Nullable AttackMetadata previousAttack = frame.attack;
+        boolean previousApplied = frame.applied;
         try {
-            applyDamage(attack.getMetadata().getDamage(), target, attacker, knockback, ignoreImmunity);
-        } catch (Exception e) {
-            this.plugin.getLogger().severe("Caught an exception (1) while damaging entity '" + target.getUniqueId() + "':", e);
+            for (int i = 0; i < batch.length; i++) {
+                if (prepared[i]) {
+                    outcomes[i] = dealDamage(frame, batch[i], resetNoDamageTicks);
+                }
+            }
         } finally {
-            unmarkAsMetadata(target);
+            frame.attack = previousAttack;
+            frame.applied = previousApplied;
+
+            // reverse order, so that a target listed twice gets back the knockback it had before
+            for (int i = batch.length - 1; i >= 0; i--) {
+                if (!prepared[i]) {
+                    continue;
+                }
+                int entityId = batch[i].getTarget().getEntityId();
+                if (bypassed[i]) {
+                    this.immunityBypass.remove(entityId);
+                }
+                restoreKnockback(entityId, previousKnockbacks[i]);
+            }
         }
+        return Arrays.asList(outcomes);
     }
 
-    private void applyDamage(double damage, LivingEntity target, @Nullable LivingEntity damager, boolean knockback, boolean ignoreImmunity) {
+    private AttackOutcome applyAttack(AttackMetadata attack, double knockback, boolean ignoreImmunity) {
+        // immunity frames are checked before any event is called
+        if (this.immunityFrames != null && !ignoreImmunity && isImmune(attack, getCurrentTick())) {
+            return AttackOutcome.CANCELLED;
+        }
+
+        // attacks can be nested, the knockback of the outer attack must be restored
+        int entityId = attack.getTarget().getEntityId();
+        @Nullable Double previousKnockback = this.knockbackMultipliers.put(entityId, knockback);
 
-        // should knockback be applied
-        if (!knockback) {
-            AttributeInstance instance = target.getAttribute(Attribute.GENERIC_KNOCKBACK_RESISTANCE);
-            try {
-                if (instance != null) {
-                    instance.addModifier(NO_KNOCKBACK);
-                }
-                applyDamage(damage, target, damager, true, ignoreImmunity);
-            } catch (Exception e) {
-                this.plugin.getLogger().severe("Caught an exception (2) while damaging entity '" + target.getUniqueId() + "':", e);
-            } finally {
-                if (instance != null) {
-                    instance.removeModifier(NO_KNOCKBACK);
-                }
+        // vanilla immunity frames are only bypassed when not tracked per damage source
+        boolean resetNoDamageTicks = ignoreImmunity && this.immunityFrames == null;
+        boolean bypassImmunity = ignoreImmunity && this.immunityFrames != null && this.immunityBypass.add(entityId);
+
+        // attacks can be nested, the frame of the outer attack must be restored
+        ApplyFrame frame = this.applyFrames.get();
+        @Nullable AttackMetadata previousAttack = frame.attack;
+        boolean previousApplied = frame.applied;
+        try {
+            return dealDamage(frame, attack, resetNoDamageTicks);
+        } finally {
+            frame.attack = previousAttack;
+            frame.applied = previousApplied;
+            if (bypassImmunity) {
+                this.immunityBypass.remove(entityId);
             }
+            restoreKnockback(entityId, previousKnockback);
+        }
+    }
+
+    /**
+     * Registers an attack and damages its target, once the knockback and immunity
+     * frames of the target were set up.
+     *
+     * @param frame              The frame of the current thread
+     * @param attack             The attack being applied
+     * @param resetNoDamageTicks If vanilla immunity frames should be bypassed
+     * @return The outcome of the attack
+     */
+    private AttackOutcome dealDamage(ApplyFrame frame, AttackMetadata attack, boolean resetNoDamageTicks) {
+        LivingEntity attacker = attack.getAttacker() == null ? null : attack.getAttacker().getEntity();
+        LivingEntity target = attack.getTarget();
+        int noDamageTicks = resetNoDamageTicks ? target.getNoDamageTicks() : 0;
+
+        frame.attack = attack;
+        frame.applied = false;
+
+        markAsMetadata(attack);
+        try {
+            double damage = attack.getMetadata().getDamage();
+            Preconditions.checkArgument(damage > 0, "Damage must be strictly positive");
+
             // should damage immunity be taken into account
-        } else if (ignoreImmunity) {
-            int noDamageTicks = target.getNoDamageTicks();
-            try {
+            if (resetNoDamageTicks) {
                 target.setNoDamageTicks(0);
-                applyDamage(damage, target, damager, true, false);
-            } catch (Exception e) {
-                this.plugin.getLogger().severe("Caught an exception (3) while damaging entity '" + target.getUniqueId() + "':", e);
-            } finally {
-                target.setNoDamageTicks(noDamageTicks);
             }
-            // just damage entity
-        } else {
-            Preconditions.checkArgument(damage > 0, "Damage must be strictly positive");
-            if (damager == null) {
+
+            if (attacker == null) {
                 target.damage(damage);
             } else {
-                target.damage(damage, damager);
+                target.damage(damage, attacker);
+            }
+        } catch (Exception e) {
+            this.plugin.getLogger().severe("Caught an exception while damaging entity '" + target.getUniqueId() + "':", e);
+        } finally {
+            if (resetNoDamageTicks) {
+                target.setNoDamageTicks(noDamageTicks);
             }
+            unmarkAsMetadata(target);
+        }
+
+        // the attack is only unregistered with damage applied if the event went through
+        if (!frame.applied) {
+            return AttackOutcome.CANCELLED;
+        }
+        return target.isDead() ? AttackOutcome.KILLED : AttackOutcome.HIT;
+    }
+
+    private boolean isImmune(AttackMetadata attack, long tick) {
+        @Nullable EntityMetadata attacker = attack.getAttacker();
+        int source = attacker == null ? ImmunityFrames.ENVIRONMENT : attacker.getEntity().getEntityId();
+        return this.immunityFrames != null && this.immunityFrames.isImmune(ImmunityFrames.key(source, attack.getTarget().getEntityId()), tick);
+    }
+
+    private void restoreKnockback(int entityId, @Nullable Double previousKnockback) {
+        if (previousKnockback == null) {
+            this.knockbackMultipliers.remove(entityId);
+        } else {
+            this.knockbackMultipliers.put(entityId, previousKnockback);
+        }
+    }
+
+    /**
+     * Cancels the damage dealt to an entity which is still immune to the damage source, when
+     * immunity frames are tracked per damage source.
+     * <p>
+     * Vanilla immunity frames are checked by the server before any damage event is called, so
+     * they are disabled for every entity being damaged and replaced by the {@link ImmunityFrames}.
+     * Their previous maximum is given back once the entity leaves its world or the plugin is disabled.
+     */
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void checkImmunityFrames(EntityDamageEvent e) {
+        if (this.immunityFrames == null || !(e.getEntity() instanceof LivingEntity) || this.plugin.getFakeEventManager().isFake(e)) {
+            return;
+        }
+
+        LivingEntity target = (LivingEntity) e.getEntity();
+        int maximumNoDamageTicks = target.getMaximumNoDamageTicks();
+        if (maximumNoDamageTicks != 0) {
+            this.maximumNoDamageTicks.putIfAbsent(target, maximumNoDamageTicks);
+            target.setMaximumNoDamageTicks(0);
+        }
+
+        if (this.immunityBypass.contains(target.getEntityId())) {
+            return;
+        }
+        if (this.immunityFrames.isImmune(ImmunityFrames.key(getImmunitySource(e), target.getEntityId()), getCurrentTick())) {
+            e.setCancelled(true);
+        }
+    }
+
+    private void markImmunityFrames(EntityDamageEvent e) {
+        if (this.immunityFrames == null || this.immunityBypass.contains(e.getEntity().getEntityId())) {
+            return;
+        }
+        this.immunityFrames.mark(ImmunityFrames.key(getImmunitySource(e), e.getEntity().getEntityId()), getCurrentTick());
+    }
+
+    /**
+     * Gives back their vanilla immunity frames to the entities which are still loaded,
+     * called when the plugin is disabled.
+     */
+    public void restoreImmunityFrames() {
+        for (Map.Entry<LivingEntity, Integer> entry : this.maximumNoDamageTicks.entrySet()) {
+            entry.getKey().setMaximumNoDamageTicks(entry.getValue());
+        }
+        this.maximumNoDamageTicks.clear();
+    }
+
+    /**
+     * @param e The damage event
+     * @return The entity id of the damage source, as used by the {@link ImmunityFrames}
+     */
+    private static int getImmunitySource(EntityDamageEvent e) {
+        if (!(e instanceof EntityDamageByEntityEvent)) {
+            return ImmunityFrames.ENVIRONMENT;
+        }
+
+        Entity damager = ((EntityDamageByEntityEvent) e).getDamager();
+        if (damager instanceof Projectile) {
+            @Nullable ProjectileSource source = ((Projectile) damager).getShooter();
+            if (source instanceof Entity) {
+                return ((Entity) source).getEntityId();
+            }
+        }
+        return damager.getEntityId();
+    }
+
+    private long getCurrentTick() {
+        return this.plugin.getBootstrap().getServer().getCurrentTick();
+    }
+
+    /**
+     * Cancels or scales the knockback dealt by the attacks registered through
+     * {@link #registerAttack(AttackMetadata, double, boolean)}.
+     * <p>
+     * Knockback is only applied by the server once the damage event was called, hence
+     * the knockback multipliers being tracked apart from the attack metadata, which is
+     * already unregistered at that point.
+     * <p>
+     * Attributes of the target are never touched, so nothing has to be recalculated
+     * and nothing can be left behind on the entity.
+     */
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void applyKnockback(EntityKnockbackByEntityEvent e) {
+        @Nullable Double knockback = this.knockbackMultipliers.get(e.getEntity().getEntityId());
+        if (knockback == null || knockback == 1) {
+            return;
+        }
+
+        if (knockback <= 0) {
+            e.setCancelled(true);
+        } else {
+            e.getAcceleration().multiply(knockback);
         }
     }
 
@@ -208,9 +668,13 @@ public final class DamageManager implements Listener {
         @Nullable AttackMetadata attackFound = getRegisteredAttackMetadata(entity);
         if (attackFound != null) return attackFound;
 
-        // attack registries from other plugins
-        for (AttackHandler handler : this.handlers) {
-            attackFound = handler.getAttack(e);
+        // attack registries from other plugins, only the ones
+        // interested in this kind of damage are consulted
+        for (HandlerEntry entry : this.handlerTable[e.getCause().ordinal()]) {
+            if (!entry.accepts(e)) {
+                continue;
+            }
+            attackFound = entry.handler.getAttack(e);
 
             if (attackFound != null) {
                 markAsMetadata(attackFound);
@@ -223,10 +687,10 @@ public final class DamageManager implements Listener {
             Entity damager = ((EntityDamageByEntityEvent) e).getDamager();
 
             if (damager instanceof LivingEntity) {
-                EntityMetadata attacker = new EntityMetadata(this.plugin, (LivingEntity) damager, EquipmentSlot.MAIN_HAND);
+                EntityMetadata attacker = this.attackPool.entity(this.plugin, (LivingEntity) damager, EquipmentSlot.MAIN_HAND);
 
-                DamageMetadata damage = new DamageMetadata(e.getDamage(), getVanillaDamageTypes((EntityDamageByEntityEvent) e, EquipmentSlot.MAIN_HAND));
-                AttackMetadata attack = new MeleeAttackMetadata(damage, entity, attacker);
+                DamageMetadata damage = this.attackPool.damage(e.getDamage(), getVanillaDamageTypeMask((EntityDamageByEntityEvent) e, EquipmentSlot.MAIN_HAND));
+                AttackMetadata attack = this.attackPool.melee(damage, entity, attacker);
 
                 markAsMetadata(attack);
                 return attack;
@@ -236,10 +700,10 @@ public final class DamageManager implements Listener {
                 // try to trace back the shooter source
                 @Nullable ProjectileSource source = projectile.getShooter();
                 if (source != null && !source.equals(entity) && source instanceof LivingEntity) {
-                    EntityMetadata attacker = new EntityMetadata(this.plugin, (LivingEntity) source, EquipmentSlot.MAIN_HAND);
+                    EntityMetadata attacker = this.attackPool.entity(this.plugin, (LivingEntity) source, EquipmentSlot.MAIN_HAND);
 
-                    DamageMetadata damage = new DamageMetadata(e.getDamage(), DamageType.WEAPON, DamageType.PHYSICAL, DamageType.PROJECTILE);
-                    AttackMetadata attack = new ProjectileAttackMetadata(damage, entity, attacker, projectile);
+                    DamageMetadata damage = this.attackPool.damage(e.getDamage(), PROJECTILE_ATTACK);
+                    AttackMetadata attack = this.attackPool.projectile(damage, entity, attacker, projectile);
 
                     markAsMetadata(attack);
                     return attack;
@@ -248,8 +712,8 @@ public final class DamageManager implements Listener {
         }
 
         // attack with no damager
-        DamageMetadata damage = new DamageMetadata(e.getDamage(), getVanillaDamageTypes(e));
-        AttackMetadata attack = new AttackMetadata(damage, entity, null);
+        DamageMetadata damage = this.attackPool.damage(e.getDamage(), getVanillaDamageTypeMask(e));
+        AttackMetadata attack = this.attackPool.attack(damage, entity);
 
         markAsMetadata(attack);
         return attack;
@@ -265,9 +729,11 @@ public final class DamageManager implements Listener {
      * the case it's throws an internal error.
      */
     public @Nullable AttackMetadata markAsMetadata(AttackMetadata attack) {
-        @Nullable AttackMetadata found = this.attackMetadataMap.put(attack.getTarget().getUniqueId(), attack);
+        @Nullable AttackMetadata found = this.attackMetadataMap.put(attack.getTarget().getEntityId(), attack);
         if (found != null) {
-            this.plugin.getLogger().warn("Please report this issue to the developer: persistent attack metadata was found.");
+            this.contentionCount.increment();
+            this.plugin.getLogger().warn("Please report this issue to the developer: persistent attack metadata was found. " +
+                    "(contention: " + this.contentionCount.sum() + ", leaked: " + this.leakCount.sum() + ")");
         }
         return found;
     }
@@ -277,7 +743,7 @@ public final class DamageManager implements Listener {
      * @return The {@link AttackMetadata} that was found, if any.
      */
     public @Nullable AttackMetadata unmarkAsMetadata(Entity target) {
-        return this.attackMetadataMap.remove(target.getUniqueId());
+        return this.attackMetadataMap.remove(target.getEntityId());
     }
 
     /**
@@ -293,43 +759,26 @@ public final class DamageManager implements Listener {
      * @return The damage types of a vanilla attack
      */
     public DamageType[] getVanillaDamageTypes(EntityDamageEvent.DamageCause cause) {
-        switch (cause) {
-            case MAGIC:
-            case DRAGON_BREATH:
-                return new DamageType[]{DamageType.MAGIC};
-            case POISON:
-            case WITHER:
-                return new DamageType[]{DamageType.MAGIC, DamageType.DOT};
-            case FIRE_TICK:
-            case MELTING:
-                return new DamageType[]{DamageType.PHYSICAL, DamageType.DOT};
-            case STARVATION:
-            case DRYOUT:
-            case FREEZE:
-                return new DamageType[]{DamageType.DOT};
-            case FIRE:
-            case LAVA:
-            case HOT_FLOOR:
-            case SONIC_BOOM:
-            case LIGHTNING:
-            case FALL:
-            case THORNS:
-            case CONTACT:
-            case ENTITY_EXPLOSION:
-            case ENTITY_SWEEP_ATTACK:
-            case FALLING_BLOCK:
-            case FLY_INTO_WALL:
-            case BLOCK_EXPLOSION:
-            case ENTITY_ATTACK:
-            case SUFFOCATION:
-            case CRAMMING:
-            case DROWNING:
-                return new DamageType[]{DamageType.PHYSICAL};
-            case PROJECTILE:
-                return new DamageType[]{DamageType.PHYSICAL, DamageType.PROJECTILE};
-            default:
-                return new DamageType[0];
-        }
+        return DamageType.fromMask(getVanillaDamageTypeMask(cause));
+    }
+
+    /**
+     * @param e The attack event.
+     * @return The damage types of a vanilla attack, as a bit mask
+     */
+    public int getVanillaDamageTypeMask(EntityDamageEvent e) {
+        return getVanillaDamageTypeMask(e.getCause());
+    }
+
+    /**
+     * Unlike {@link #getVanillaDamageTypes(EntityDamageEvent.DamageCause)}, this does
+     * not allocate anything as the masks are computed once for every damage cause.
+     *
+     * @param cause The cause of the attack.
+     * @return The damage types of a vanilla attack, as a bit mask
+     */
+    public int getVanillaDamageTypeMask(EntityDamageEvent.DamageCause cause) {
+        return VANILLA_DAMAGE_TYPES[cause.ordinal()];
     }
 
     /**
@@ -338,8 +787,7 @@ public final class DamageManager implements Listener {
      * @return The damage types of a vanilla melee entity attack
      */
     public DamageType[] getVanillaDamageTypes(EntityDamageByEntityEvent e, EquipmentSlot hand) {
-        Preconditions.checkArgument(e.getDamager() instanceof LivingEntity, "Not an entity attack");
-        return getVanillaDamageTypes((LivingEntity) e.getDamager(), e.getCause(), hand);
+        return DamageType.fromMask(getVanillaDamageTypeMask(e, hand));
     }
 
     /**
@@ -349,10 +797,30 @@ public final class DamageManager implements Listener {
      * @return The damage types of a vanilla melee entity attack
      */
     public DamageType[] getVanillaDamageTypes(LivingEntity damager, EntityDamageEvent.DamageCause cause, EquipmentSlot hand) {
+        return DamageType.fromMask(getVanillaDamageTypeMask(damager, cause, hand));
+    }
+
+    /**
+     * @param e    The attack event.
+     * @param hand The hand used to perform the attack.
+     * @return The damage types of a vanilla melee entity attack, as a bit mask
+     */
+    public int getVanillaDamageTypeMask(EntityDamageByEntityEvent e, EquipmentSlot hand) {
+        Preconditions.checkArgument(e.getDamager() instanceof LivingEntity, "Not an entity attack");
+        return getVanillaDamageTypeMask((LivingEntity) e.getDamager(), e.getCause(), hand);
+    }
+
+    /**
+     * @param damager The entity attacking.
+     * @param cause   The cause of the attack.
+     * @param hand    The hand used to perform the attack.
+     * @return The damage types of a vanilla melee entity attack, as a bit mask
+     */
+    public int getVanillaDamageTypeMask(LivingEntity damager, EntityDamageEvent.DamageCause cause, EquipmentSlot hand) {
 
         // not an entity attack
         if (cause != EntityDamageEvent.DamageCause.ENTITY_ATTACK && cause != EntityDamageEvent.DamageCause.ENTITY_SWEEP_ATTACK)
-            return new DamageType[]{DamageType.PHYSICAL};
+            return PHYSICAL_ATTACK;
 
         // physical attack with bare fists.
         @Nullable ItemStack handItem = null;
@@ -372,17 +840,103 @@ public final class DamageManager implements Listener {
         }
 
         if (UtilityMethod.isAir(handItem))
-            return new DamageType[]{DamageType.UNARMED, DamageType.PHYSICAL};
+            return UNARMED_ATTACK;
 
         // weapon attack
         if (UtilityMethod.isWeapon(handItem))
-            return new DamageType[]{DamageType.WEAPON, DamageType.PHYSICAL};
+            return WEAPON_ATTACK;
 
         // hitting with a random item
-        return new DamageType[]{DamageType.PHYSICAL};
+        return PHYSICAL_ATTACK;
+    }
+
+    private static int computeVanillaDamageTypes(EntityDamageEvent.DamageCause cause) {
+        switch (cause) {
+            case MAGIC:
+            case DRAGON_BREATH:
+                return DamageType.toMask(DamageType.MAGIC);
+            case POISON:
+            case WITHER:
+                return DamageType.toMask(DamageType.MAGIC, DamageType.DOT);
+            case FIRE_TICK:
+            case MELTING:
+                return DamageType.toMask(DamageType.PHYSICAL, DamageType.DOT);
+            case STARVATION:
+            case DRYOUT:
+            case FREEZE:
+                return DamageType.toMask(DamageType.DOT);
+            case FIRE:
+            case LAVA:
+            case HOT_FLOOR:
+            case SONIC_BOOM:
+            case LIGHTNING:
+            case FALL:
+            case THORNS:
+            case CONTACT:
+            case ENTITY_EXPLOSION:
+            case ENTITY_SWEEP_ATTACK:
+            case FALLING_BLOCK:
+            case FLY_INTO_WALL:
+            case BLOCK_EXPLOSION:
+            case ENTITY_ATTACK:
+            case SUFFOCATION:
+            case CRAMMING:
+            case DROWNING:
+                return PHYSICAL_ATTACK;
+            case PROJECTILE:
+                return DamageType.toMask(DamageType.PHYSICAL, DamageType.PROJECTILE);
+            default:
+                return 0;
+        }
     }
 
     public @Nullable AttackMetadata getRegisteredAttackMetadata(Entity entity) {
-        return this.attackMetadataMap.get(entity.getUniqueId());
+        return this.attackMetadataMap.get(entity.getEntityId());
+    }
+
+    /**
+     * A registered {@link AttackHandler} along with the damager types it declared.
+     */
+    private static final class HandlerEntry {
+        private final AttackHandler handler;
+
+        /**
+         * The damager types of the handler, or null if any damager is accepted.
+         */
+        @Nullable
+        private final Class<?>[] damagerTypes;
+
+        private HandlerEntry(AttackHandler handler) {
+            this.handler = handler;
+
+            @Nullable Set<Class<? extends Entity>> damagerTypes = handler.getDamagerTypes();
+            this.damagerTypes = damagerTypes == null ? null : damagerTypes.toArray(new Class<?>[0]);
+        }
+
+        private boolean accepts(EntityDamageEvent e) {
+            if (this.damagerTypes == null) {
+                return true;
+            }
+            if (!(e instanceof EntityDamageByEntityEvent)) {
+                return false;
+            }
+
+            Entity damager = ((EntityDamageByEntityEvent) e).getDamager();
+            for (Class<?> damagerType : this.damagerTypes) {
+                if (damagerType.isInstance(damager)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The attack being applied on a thread, and if it was unregistered with damage dealt.
+     */
+    private static final class ApplyFrame {
+        @Nullable
+        private AttackMetadata attack;
+        private boolean applied;
     }
-}
\ No newline at end of file
+}
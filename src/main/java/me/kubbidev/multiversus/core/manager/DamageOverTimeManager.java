@@ -0,0 +1,235 @@
+package me.kubbidev.multiversus.core.manager;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import me.kubbidev.multiversus.FBukkitPlugin;
+import me.kubbidev.multiversus.core.damage.AttackMetadata;
+import me.kubbidev.multiversus.core.damage.DamageMetadata;
+import me.kubbidev.multiversus.core.damage.DamageOverTime;
+import me.kubbidev.multiversus.core.damage.EntityMetadata;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Central ticking engine of every {@link DamageOverTime} effect.
+ * <p>
+ * Effects are stored per affected entity and processed in one batch every tick, instead of
+ * running one scheduler task per effect. The damage of every effect ticking on the same target
+ * during the same tick is grouped by attacker into a single attack, and all attacks of the tick
+ * are then registered at once through {@link DamageManager#registerAttacks(Collection, double, boolean)}.
+ * <p>
+ * Damage over time deals no knockback and ignores immunity frames.
+ * <p>
+ * This class is NOT thread safe, it must only be used from the main thread.
+ */
+public final class DamageOverTimeManager extends BukkitRunnable implements Listener {
+
+    /**
+     * The singleton plugin instance.
+     */
+    private final FBukkitPlugin plugin;
+
+    /**
+     * Entities currently affected by at least one effect, by entity id.
+     */
+    private final Map<Integer, AffectedEntity> entities = new HashMap<>();
+
+    /**
+     * Attacks of the current tick, reused from one tick to another.
+     */
+    private final List<AttackMetadata> attacks = new ArrayList<>();
+
+    /**
+     * Amount of ticks elapsed since this manager started.
+     */
+    private long currentTick;
+
+    public DamageOverTimeManager(FBukkitPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Applies a damage over time effect to an entity.
+     * <p>
+     * If the entity is already affected by an effect which stacks with the given one,
+     * a stack is added to it and its duration is refreshed.
+     *
+     * @param target The entity being affected
+     * @param effect The damage over time effect
+     */
+    public void apply(LivingEntity target, DamageOverTime effect) {
+        AffectedEntity affected = this.entities.computeIfAbsent(target.getEntityId(), id -> new AffectedEntity(target));
+        for (ActiveEffect active : affected.effects) {
+            if (active.effect.stacksWith(effect)) {
+                active.stacks = Math.min(active.stacks + 1, active.effect.getMaxStacks());
+                active.expiry = this.currentTick + effect.getDuration();
+                return;
+            }
+        }
+        affected.effects.add(new ActiveEffect(effect, this.currentTick));
+    }
+
+    /**
+     * @param target The entity being checked
+     * @param id     The identifier of the effect
+     * @return The total amount of stacks of the effect on the entity, from all attackers
+     */
+    public int getStacks(LivingEntity target, String id) {
+        @Nullable AffectedEntity affected = this.entities.get(target.getEntityId());
+        if (affected == null) {
+            return 0;
+        }
+
+        int stacks = 0;
+        for (ActiveEffect active : affected.effects) {
+            if (active.effect.getId().equals(id)) {
+                stacks += active.stacks;
+            }
+        }
+        return stacks;
+    }
+
+    /**
+     * Removes every effect with the given identifier from an entity.
+     *
+     * @param target The affected entity
+     * @param id     The identifier of the effect
+     */
+    public void remove(LivingEntity target, String id) {
+        @Nullable AffectedEntity affected = this.entities.get(target.getEntityId());
+        if (affected != null) {
+            affected.effects.removeIf(active -> active.effect.getId().equals(id));
+        }
+    }
+
+    /**
+     * Removes every effect from an entity.
+     *
+     * @param target The affected entity
+     */
+    public void clear(LivingEntity target) {
+        this.entities.remove(target.getEntityId());
+    }
+
+    @EventHandler
+    public void unregisterEntity(EntityRemoveFromWorldEvent e) {
+        // effects end when the entity leave the world (kill or discard)
+        this.entities.remove(e.getEntity().getEntityId());
+    }
+
+    @Override
+    public void run() {
+        long tick = ++this.currentTick;
+        if (this.entities.isEmpty()) {
+            return;
+        }
+
+        Iterator<AffectedEntity> iterator = this.entities.values().iterator();
+        while (iterator.hasNext()) {
+            AffectedEntity affected = iterator.next();
+            if (!affected.entity.isValid()) {
+                iterator.remove();
+                continue;
+            }
+
+            affected.collectAttacks(this.plugin, tick, this.attacks);
+            if (affected.effects.isEmpty()) {
+                iterator.remove();
+            }
+        }
+
+        if (this.attacks.isEmpty()) {
+            return;
+        }
+        try {
+            this.plugin.getDamageManager().registerAttacks(this.attacks, 0, true);
+        } finally {
+            this.attacks.clear();
+        }
+    }
+
+    /**
+     * An entity along with the effects it is affected by.
+     */
+    private static final class AffectedEntity {
+        private final LivingEntity entity;
+        private final List<ActiveEffect> effects = new ArrayList<>(2);
+
+        private AffectedEntity(LivingEntity entity) {
+            this.entity = entity;
+        }
+
+        /**
+         * Groups the damage of every effect ticking during the given tick into
+         * one attack per attacker, and removes the expired effects.
+         *
+         * @param plugin  The plugin instance
+         * @param tick    The current tick
+         * @param attacks The list the attacks are added to
+         */
+        private void collectAttacks(FBukkitPlugin plugin, long tick, List<AttackMetadata> attacks) {
+            int first = attacks.size();
+
+            Iterator<ActiveEffect> iterator = this.effects.iterator();
+            while (iterator.hasNext()) {
+                ActiveEffect active = iterator.next();
+                if (active.nextTick > active.expiry) {
+                    iterator.remove();
+                    continue;
+                }
+                if (active.nextTick > tick) {
+                    continue;
+                }
+                active.nextTick += active.effect.getPeriod();
+
+                DamageOverTime effect = active.effect;
+                double damage = effect.getDamage() * active.stacks;
+
+                // attackers who left do not get the credit for the damage
+                @Nullable LivingEntity attacker = effect.getAttacker();
+                if (attacker != null && !attacker.isValid()) {
+                    attacker = null;
+                }
+
+                @Nullable AttackMetadata attack = findAttack(attacks, first, attacker);
+                if (attack == null) {
+                    @Nullable EntityMetadata metadata = attacker == null ? null : new EntityMetadata(plugin, attacker, effect.getActionHand());
+                    attacks.add(new AttackMetadata(new DamageMetadata(damage, effect.getElement(), effect.getTypeMask()), this.entity, metadata));
+                } else {
+                    attack.getMetadata().add(damage, effect.getElement(), effect.getTypeMask());
+                }
+            }
+        }
+
+        private static @Nullable AttackMetadata findAttack(List<AttackMetadata> attacks, int first, @Nullable LivingEntity attacker) {
+            for (int i = first; i < attacks.size(); i++) {
+                AttackMetadata attack = attacks.get(i);
+                @Nullable EntityMetadata found = attack.getAttacker();
+                if (found == null ? attacker == null : attacker != null && found.getEntity().equals(attacker)) {
+                    return attack;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The state of an effect applied to an entity.
+     */
+    private static final class ActiveEffect {
+        private final DamageOverTime effect;
+        private int stacks = 1;
+        private long nextTick;
+        private long expiry;
+
+        private ActiveEffect(DamageOverTime effect, long tick) {
+            this.effect = effect;
+            this.nextTick = tick + effect.getPeriod();
+            this.expiry = tick + effect.getDuration();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package me.kubbidev.multiversus.core.manager;
+
+import me.kubbidev.multiversus.FBukkitPlugin;
+import me.kubbidev.multiversus.core.modifier.EntityModifier;
+import me.kubbidev.multiversus.core.modifier.ModifierMap;
+import me.kubbidev.multiversus.core.modifier.instance.InstanceModifier;
+import me.kubbidev.multiversus.core.modifier.instance.ModifiedInstance;
+import me.kubbidev.multiversus.core.util.Closeable;
+import me.kubbidev.multiversus.core.util.TimingWheel;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Removes timed modifiers, such as buffs and debuffs, once their duration runs out.
+ * <p>
+ * Every timed modifier is stored in a single {@link TimingWheel} which advances once every
+ * tick, instead of running one scheduler task per modifier. The modifiers expiring during
+ * a tick are all removed in one batch, {@link Closeable closed}, and their removal callback
+ * is then called.
+ * <p>
+ * A modifier only expires if it is still the modifier registered with its uuid, so a modifier
+ * which was replaced by another one with the same uuid (e.g. to refresh a buff) is left as is.
+ * The timeout of the old modifier should still be cancelled in that case.
+ * <p>
+ * This class is NOT thread safe, it must only be used from the main thread.
+ */
+public final class ModifierExpiryManager extends BukkitRunnable {
+
+    /**
+     * Amount of ticks between two purges of the cancelled timeouts.
+     */
+    private static final int PURGE_PERIOD = 1200;
+
+    /**
+     * The singleton plugin instance.
+     */
+    private final FBukkitPlugin plugin;
+
+    private final TimingWheel<Expiry> wheel = new TimingWheel<>();
+
+    /**
+     * Timeout of every timed modifier, by modifier instance.
+     * <p>
+     * Timeouts cancelled by their owner are only removed from time to time, see {@link #PURGE_PERIOD}.
+     */
+    private final Map<EntityModifier, TimingWheel.Timeout<Expiry>> timeouts = new IdentityHashMap<>();
+
+    /**
+     * Modifiers expiring during the current tick, reused from one tick to another.
+     */
+    private final List<Expiry> expired = new ArrayList<>();
+
+    public ModifierExpiryManager(FBukkitPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * @return The amount of timed modifiers which did not expire yet
+     */
+    public int getPendingCount() {
+        return this.wheel.size();
+    }
+
+    /**
+     * @param modifier A modifier
+     * @return The amount of ticks before the modifier expires, or -1 if it is not a timed modifier
+     */
+    public long getRemainingTicks(EntityModifier modifier) {
+        @Nullable TimingWheel.Timeout<Expiry> timeout = this.timeouts.get(modifier);
+        if (timeout == null || !timeout.isPending()) {
+            return -1;
+        }
+        return timeout.getDeadline() - this.wheel.getTick();
+    }
+
+    /**
+     * Adds a modifier to a modifier map, and removes it after the given amount of ticks.
+     *
+     * @param map      The modifier map
+     * @param modifier The modifier to add
+     * @param ticks    The duration of the modifier, in ticks
+     * @return The timeout of the modifier, which can be cancelled to make the modifier permanent
+     */
+    public <T extends EntityModifier> TimingWheel.Timeout<?> addModifier(ModifierMap<T> map, T modifier, long ticks) {
+        return addModifier(map, modifier, ticks, null);
+    }
+
+    /**
+     * Adds a modifier to a modifier map, and removes it after the given amount of ticks.
+     *
+     * @param map      The modifier map
+     * @param modifier The modifier to add
+     * @param ticks    The duration of the modifier, in ticks
+     * @param callback Called once the modifier expired and was removed
+     * @return The timeout of the modifier, which can be cancelled to make the modifier permanent
+     */
+    public <T extends EntityModifier> TimingWheel.Timeout<?> addModifier(ModifierMap<T> map, T modifier, long ticks, @Nullable Consumer<? super T> callback) {
+        map.addModifier(modifier);
+        return schedule(new MapExpiry<>(map, modifier, callback), ticks);
+    }
+
+    /**
+     * Registers a modifier in a modified instance, and removes it after the given amount of ticks.
+     *
+     * @param instance The modified instance
+     * @param modifier The modifier to register
+     * @param ticks    The duration of the modifier, in ticks
+     * @return The timeout of the modifier, which can be cancelled to make the modifier permanent
+     */
+    public <T extends InstanceModifier> TimingWheel.Timeout<?> registerModifier(ModifiedInstance<T> instance, T modifier, long ticks) {
+        return registerModifier(instance, modifier, ticks, null);
+    }
+
+    /**
+     * Registers a modifier in a modified instance, and removes it after the given amount of ticks.
+     *
+     * @param instance The modified instance
+     * @param modifier The modifier to register
+     * @param ticks    The duration of the modifier, in ticks
+     * @param callback Called once the modifier expired and was removed
+     * @return The timeout of the modifier, which can be cancelled to make the modifier permanent
+     */
+    public <T extends InstanceModifier> TimingWheel.Timeout<?> registerModifier(ModifiedInstance<T> instance, T modifier, long ticks, @Nullable Consumer<? super T> callback) {
+        instance.registerModifier(modifier);
+        return schedule(new InstanceExpiry<>(instance, modifier, callback), ticks);
+    }
+
+    private TimingWheel.Timeout<Expiry> schedule(Expiry expiry, long ticks) {
+        TimingWheel.Timeout<Expiry> timeout = this.wheel.schedule(expiry, ticks);
+        this.timeouts.put(expiry.getModifier(), timeout);
+        return timeout;
+    }
+
+    @Override
+    public void run() {
+        this.wheel.advance(this.expired::add);
+        if (this.wheel.getTick() % PURGE_PERIOD == 0) {
+            this.timeouts.values().removeIf(timeout -> !timeout.isPending());
+        }
+        if (this.expired.isEmpty()) {
+            return;
+        }
+
+        try {
+            // remove every modifier first, so that callbacks see the final state of the tick
+            for (int i = 0; i < this.expired.size(); i++) {
+                Expiry expiry = this.expired.get(i);
+                @Nullable TimingWheel.Timeout<Expiry> timeout = this.timeouts.get(expiry.getModifier());
+                if (timeout != null && !timeout.isPending()) {
+                    this.timeouts.remove(expiry.getModifier());
+                }
+                try {
+                    if (!expiry.remove()) {
+                        this.expired.set(i, null);
+                    }
+                } catch (Exception e) {
+                    this.expired.set(i, null);
+                    this.plugin.getLogger().severe("Caught an exception while removing expired modifier '" + expiry.getModifier().getKey() + "':", e);
+                }
+            }
+
+            for (@Nullable Expiry expiry : this.expired) {
+                if (expiry == null) {
+                    continue;
+                }
+                try {
+                    expiry.callback();
+                } catch (Exception e) {
+                    this.plugin.getLogger().severe("Caught an exception while calling expiry callback of modifier '" + expiry.getModifier().getKey() + "':", e);
+                }
+            }
+        } finally {
+            this.expired.clear();
+        }
+    }
+
+    /**
+     * A modifier waiting for its removal.
+     */
+    private static abstract class Expiry {
+
+        abstract EntityModifier getModifier();
+
+        /**
+         * @return True if the modifier was still registered and has been removed
+         */
+        abstract boolean remove();
+
+        abstract void callback();
+    }
+
+    private static final class MapExpiry<T extends EntityModifier> extends Expiry {
+        private final ModifierMap<T> map;
+        private final T modifier;
+
+        @Nullable
+        private final Consumer<? super T> callback;
+
+        private MapExpiry(ModifierMap<T> map, T modifier, @Nullable Consumer<? super T> callback) {
+            this.map = map;
+            this.modifier = modifier;
+            this.callback = callback;
+        }
+
+        @Override
+        EntityModifier getModifier() {
+            return this.modifier;
+        }
+
+        @Override
+        boolean remove() {
+            return this.map.removeModifier(this.modifier);
+        }
+
+        @Override
+        void callback() {
+            if (this.callback != null) {
+                this.callback.accept(this.modifier);
+            }
+        }
+    }
+
+    private static final class InstanceExpiry<T extends InstanceModifier> extends Expiry {
+        private final ModifiedInstance<T> instance;
+        private final T modifier;
+
+        @Nullable
+        private final Consumer<? super T> callback;
+
+        private InstanceExpiry(ModifiedInstance<T> instance, T modifier, @Nullable Consumer<? super T> callback) {
+            this.instance = instance;
+            this.modifier = modifier;
+            this.callback = callback;
+        }
+
+        @Override
+        EntityModifier getModifier() {
+            return this.modifier;
+        }
+
+        @Override
+        boolean remove() {
+            return this.instance.removeModifier(this.modifier);
+        }
+
+        @Override
+        void callback() {
+            if (this.callback != null) {
+                this.callback.accept(this.modifier);
+            }
+        }
+    }
+}
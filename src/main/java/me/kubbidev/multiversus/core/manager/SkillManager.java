@@ -5,11 +5,16 @@ import com.google.common.collect.ImmutableList;
 import me.kubbidev.multiversus.FBukkitPlugin;
 import me.kubbidev.multiversus.core.UtilityMethod;
 import me.kubbidev.multiversus.core.skill.RegisteredSkill;
+import me.kubbidev.multiversus.core.skill.Skill;
+import me.kubbidev.multiversus.core.skill.SkillMetadata;
 import me.kubbidev.multiversus.core.skill.handler.SkillHandler;
+import me.kubbidev.multiversus.core.skill.result.SkillResult;
+import me.kubbidev.multiversus.core.util.TimingWheel;
 import me.kubbidev.multiversus.util.MoreFiles;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Entity;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.jetbrains.annotations.Nullable;
@@ -34,6 +39,31 @@ public final class SkillManager {
 
     private boolean registration = true;
 
+    /**
+     * Skills waiting for their casting delay to pass, drained once every tick.
+     */
+    private final TimingWheel<DelayedCast> delayedCasts = new TimingWheel<>();
+
+    /**
+     * Pending delayed casts of every caster, by caster uuid.
+     */
+    private final Map<UUID, CasterCasts> casters = new HashMap<>();
+
+    /**
+     * Amount of times the delayed casts of every skill were cancelled since the last reload.
+     */
+    private final Map<Skill, Integer> skillEpochs = new IdentityHashMap<>();
+
+    /**
+     * Amount of times the skills were reloaded, which cancels every pending delayed cast.
+     */
+    private int reloadEpoch;
+
+    /**
+     * Delayed casts which are due during the current tick, reused from one tick to another.
+     */
+    private final List<DelayedCast> dueCasts = new ArrayList<>();
+
     public SkillManager(FBukkitPlugin plugin) {
         this.plugin = plugin;
     }
@@ -81,6 +111,91 @@ public final class SkillManager {
         return this.skills.values();
     }
 
+    /**
+     * Casts a skill once the given delay has passed, if its caster and target entity are still
+     * valid by then. This does not check the skill conditions again.
+     * <p>
+     * Delayed casts are stored in a single {@link TimingWheel} advanced once every tick, instead
+     * of running one scheduler task per cast. Cancelled casts are only discarded once due.
+     * <p>
+     * Reloading the skills cancels every pending delayed cast.
+     * <p>
+     * This must only be called from the main thread.
+     *
+     * @param meta   The info of skill being cast
+     * @param result The skill result computed when the cast began
+     * @param ticks  The casting delay, in ticks
+     * @see Skill#castInstantly(SkillMetadata, SkillResult)
+     */
+    public void castLater(SkillMetadata meta, SkillResult result, long ticks) {
+        UUID uuid = meta.getEntity().getUniqueId();
+        CasterCasts caster = this.casters.computeIfAbsent(uuid, k -> new CasterCasts());
+        caster.pending++;
+
+        Skill skill = meta.getCast();
+        this.delayedCasts.schedule(new DelayedCast(meta, result, uuid, caster.epoch, this.skillEpochs.getOrDefault(skill, 0), this.reloadEpoch), ticks);
+    }
+
+    /**
+     * Cancels every pending delayed cast of a caster.
+     *
+     * @param caster The entity which cast the skills
+     */
+    public void cancelDelayedCasts(Entity caster) {
+        @Nullable CasterCasts casts = this.casters.get(caster.getUniqueId());
+        if (casts != null) {
+            casts.epoch++;
+        }
+    }
+
+    /**
+     * Cancels every pending delayed cast of a skill, whoever the caster is.
+     *
+     * @param skill The skill
+     */
+    public void cancelDelayedCasts(Skill skill) {
+        this.skillEpochs.merge(skill, 1, Integer::sum);
+    }
+
+    /**
+     * @return The amount of delayed casts waiting for their delay to pass, including cancelled ones
+     */
+    public int getPendingCastCount() {
+        return this.delayedCasts.size();
+    }
+
+    /**
+     * Casts the skills whose casting delay passed during this tick.
+     */
+    public void tickDelayedCasts() {
+        this.delayedCasts.advance(this.dueCasts::add);
+        if (this.dueCasts.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (DelayedCast cast : this.dueCasts) {
+                // the caster bookkeeping never depends on the cast metadata, so it can't be skipped
+                @Nullable CasterCasts caster = this.casters.get(cast.caster);
+                boolean cancelled = caster == null || caster.epoch != cast.casterEpoch || cast.reloadEpoch != this.reloadEpoch;
+                if (caster != null && --caster.pending == 0) {
+                    this.casters.remove(cast.caster);
+                }
+
+                try {
+                    if (cancelled || this.skillEpochs.getOrDefault(cast.meta.getCast(), 0) != cast.skillEpoch || !cast.isValid()) {
+                        continue;
+                    }
+                    cast.meta.getCast().castInstantly(cast.meta, cast.result);
+                } catch (Exception e) {
+                    this.plugin.getLogger().severe("Caught an exception while casting delayed skill '" + cast.meta.getCast().getHandler().getId() + "':", e);
+                }
+            }
+        } finally {
+            this.dueCasts.clear();
+        }
+    }
+
     public void load(boolean clearBefore) {
         Path skillsPath = this.plugin.getBootstrap().getConfigDirectory().resolve("skill");
         if (clearBefore) {
@@ -88,6 +203,10 @@ public final class SkillManager {
                     .forEach(HandlerList::unregisterAll);
 
             this.handlers.clear();
+
+            // the skills are replaced, their pending delayed casts with them
+            this.skillEpochs.clear();
+            this.reloadEpoch++;
         } else {
             this.registration = false;
             try {
@@ -126,6 +245,12 @@ public final class SkillManager {
                     this.plugin.getLogger().severe("Could not save " + handler.getId() + ".yml: " + e.getMessage());
                 }
             }
+            // unknown parameters are most likely typos, which are never used
+            for (String key : config.getKeys(false)) {
+                if (config.isConfigurationSection(key) && handler.getParameter(key) == null) {
+                    this.plugin.getLogger().warn("Ignoring unknown parameter '" + key + "' of skill '" + handler.getId() + "'");
+                }
+            }
             try {
                 RegisteredSkill skill = new RegisteredSkill(handler, config);
                 registerSkill(skill);
@@ -134,4 +259,46 @@ public final class SkillManager {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A skill waiting for its casting delay to pass.
+     */
+    private static final class DelayedCast {
+        private final SkillMetadata meta;
+        private final SkillResult result;
+        private final UUID caster;
+
+        /**
+         * Cancellation counts of the caster and of the skill, and reload count, when the
+         * cast was delayed. The cast was cancelled if any of them changed since.
+         */
+        private final int casterEpoch;
+        private final int skillEpoch;
+        private final int reloadEpoch;
+
+        private DelayedCast(SkillMetadata meta, SkillResult result, UUID caster, int casterEpoch, int skillEpoch, int reloadEpoch) {
+            this.meta = meta;
+            this.result = result;
+            this.caster = caster;
+            this.casterEpoch = casterEpoch;
+            this.skillEpoch = skillEpoch;
+            this.reloadEpoch = reloadEpoch;
+        }
+
+        /**
+         * @return True if the caster and target entity, if any, are still valid
+         */
+        private boolean isValid() {
+            @Nullable Entity target = this.meta.getTargetEntityOrNull();
+            return this.meta.getEntity().isValid() && (target == null || target.isValid());
+        }
+    }
+
+    /**
+     * The pending delayed casts of a caster, removed once none is pending anymore.
+     */
+    private static final class CasterCasts {
+        private int pending;
+        private int epoch;
+    }
+}
@@ -30,10 +30,27 @@ public final class Metadata extends BukkitRunnable implements Listener {
      */
     private static Metadata housekeeper = null;
 
+    /**
+     * The maximum amount of due values expired per run, the remaining ones are expired on the next runs
+     */
+    private static final int EXPIRY_BATCH_SIZE = 10_000;
+
+    /**
+     * The amount of runs between two sweeps of the registries for empty maps
+     */
+    private static final int SWEEP_INTERVAL = 60;
+
+    private int runs = 0;
+
     @Override
     public void run() {
-        for (MetadataRegistry<?> registry : StandardMetadataRegistries.values()) {
-            registry.cleanup();
+        // only go through the values which are due instead of every value of every map
+        MetadataExpiryQueue.expireDue(EXPIRY_BATCH_SIZE);
+
+        if (++this.runs % SWEEP_INTERVAL == 0) {
+            for (MetadataRegistry<?> registry : StandardMetadataRegistries.values()) {
+                registry.cleanup();
+            }
         }
     }
 
@@ -47,7 +64,7 @@ public final class Metadata extends BukkitRunnable implements Listener {
         Preconditions.checkArgument(housekeeper == null, "Metadata already setup");
 
         housekeeper = new Metadata();
-        housekeeper.runTaskTimerAsynchronously(plugin, 0, 1200);
+        housekeeper.runTaskTimerAsynchronously(plugin, 0, 20);
         // register listener events to the bukkit plugin manager instance.
         Bukkit.getPluginManager().registerEvents(housekeeper, plugin);
     }
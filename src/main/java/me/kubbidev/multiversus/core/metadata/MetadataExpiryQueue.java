@@ -0,0 +1,130 @@
+package me.kubbidev.multiversus.core.metadata;
+
+import me.kubbidev.multiversus.core.metadata.value.TransientValue;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Global index of every {@link TransientValue} with a known expiry time, in every metadata map,
+ * ordered by expiry time.
+ * <p>
+ * Values are registered once when they are stored, and the housekeeper only goes through the
+ * values which are due instead of checking every value of every map. Values which are replaced
+ * or removed cancel their expiry, which releases the map and the value right away, and cancelled
+ * expiries are purged from the queue once they make up half of it.
+ */
+final class MetadataExpiryQueue {
+    private MetadataExpiryQueue() {
+    }
+
+    /**
+     * The minimum amount of cancelled expiries before the queue is purged.
+     */
+    private static final int PURGE_THRESHOLD = 1024;
+
+    private static final PriorityBlockingQueue<Expiry> QUEUE = new PriorityBlockingQueue<>(64, Comparator.comparingLong(e -> e.expiryTime));
+
+    /**
+     * The approximate amount of cancelled expiries still in the queue.
+     */
+    private static final AtomicInteger CANCELLED = new AtomicInteger();
+
+    static Expiry register(MetadataMapImpl map, MetadataMapImpl.Entry entry) {
+        Expiry expiry = new Expiry(map, entry, entry.getExpiryTime());
+        QUEUE.add(expiry);
+        return expiry;
+    }
+
+    /**
+     * Cancels the expiry of a value which was replaced or removed from its map.
+     *
+     * @param expiry the expiry
+     */
+    static void cancel(Expiry expiry) {
+        expiry.map = null;
+        expiry.entry = null;
+        if (CANCELLED.incrementAndGet() > Math.max(PURGE_THRESHOLD, QUEUE.size() / 2)) {
+            purge();
+        }
+    }
+
+    /**
+     * Expires the values which are due, up to the given amount.
+     *
+     * @param limit the maximum amount of values to go through
+     * @return the amount of values gone through
+     */
+    static int expireDue(int limit) {
+        long now = System.currentTimeMillis();
+        int count = 0;
+        while (count < limit) {
+            @Nullable Expiry expiry = QUEUE.peek();
+            if (expiry == null || expiry.expiryTime > now) {
+                break;
+            }
+
+            // another thread may have polled it in the meantime
+            expiry = QUEUE.poll();
+            if (expiry == null) {
+                break;
+            }
+            if (expiry.expiryTime > now) {
+                QUEUE.add(expiry);
+                break;
+            }
+            count++;
+
+            @Nullable MetadataMapImpl map = expiry.map;
+            @Nullable MetadataMapImpl.Entry entry = expiry.entry;
+            if (map == null || entry == null) {
+                CANCELLED.decrementAndGet();
+                continue;
+            }
+            map.expire(entry);
+        }
+        return count;
+    }
+
+    /**
+     * Removes the cancelled expiries from the queue.
+     */
+    private static synchronized void purge() {
+        List<Expiry> expiries = new ArrayList<>(QUEUE.size());
+        QUEUE.drainTo(expiries);
+        CANCELLED.set(0);
+
+        List<Expiry> pending = new ArrayList<>(expiries.size());
+        for (Expiry expiry : expiries) {
+            if (expiry.map != null) {
+                pending.add(expiry);
+            }
+        }
+        QUEUE.addAll(pending);
+    }
+
+    static int size() {
+        return QUEUE.size();
+    }
+
+    /**
+     * The expiry of a value, which no longer references the value nor its map once cancelled.
+     */
+    static final class Expiry {
+        @Nullable
+        private volatile MetadataMapImpl map;
+        @Nullable
+        private volatile MetadataMapImpl.Entry entry;
+        private final long expiryTime;
+
+        private Expiry(MetadataMapImpl map, MetadataMapImpl.Entry entry, long expiryTime) {
+            this.map = map;
+            this.entry = entry;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
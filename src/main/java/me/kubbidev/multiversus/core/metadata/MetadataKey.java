@@ -28,7 +28,7 @@ public interface MetadataKey<T> extends TypeAware<T> {
     static <T> MetadataKey<T> create(String id, TypeToken<T> type) {
         Objects.requireNonNull(id, "id");
         Objects.requireNonNull(type, "type");
-        return new MetadataKeyImpl<>(id, type);
+        return MetadataKeyImpl.of(id, type);
     }
 
     /**
@@ -94,6 +94,16 @@ public interface MetadataKey<T> extends TypeAware<T> {
      */
     String getId();
 
+    /**
+     * Gets the dense index of this key, shared by every key with the same id.
+     *
+     * <p>Indexes are assigned from zero in the order keys are first created, and are used by
+     * {@link MetadataMap}s to store values in array slots rather than hashing keys.</p>
+     *
+     * @return the index of this key
+     */
+    int getIndex();
+
     /**
      * Get the type of the value mapped to this key
      *
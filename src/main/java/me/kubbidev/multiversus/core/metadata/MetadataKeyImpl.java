@@ -2,16 +2,43 @@ package me.kubbidev.multiversus.core.metadata;
 
 import com.google.common.reflect.TypeToken;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Keys are interned by id, so that every key created with the same id and type is the same
+ * instance and holds the same dense {@link #getIndex() index}. Checking that two keys of the
+ * same index have the same type is then an identity comparison in the common case, the type
+ * tokens being only compared when a key id is used with several types.
+ */
 final class MetadataKeyImpl<T> implements MetadataKey<T> {
 
+    /**
+     * The first key created for every id.
+     */
+    private static final Map<String, MetadataKeyImpl<?>> KEYS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
+    static <T> MetadataKeyImpl<T> of(String id, TypeToken<T> type) {
+        String lowerId = id.toLowerCase();
+        MetadataKeyImpl<?> existing = KEYS.computeIfAbsent(lowerId, k -> new MetadataKeyImpl<>(k, type, NEXT_INDEX.getAndIncrement()));
+        if (existing.type.equals(type)) {
+            //noinspection unchecked
+            return (MetadataKeyImpl<T>) existing;
+        }
+        return new MetadataKeyImpl<>(lowerId, type, existing.index);
+    }
+
     private final String id;
     private final TypeToken<T> type;
+    private final int index;
 
-    MetadataKeyImpl(String id, TypeToken<T> type) {
-        this.id = id.toLowerCase();
+    private MetadataKeyImpl(String id, TypeToken<T> type, int index) {
+        this.id = id;
         this.type = type;
+        this.index = index;
     }
 
     @Override
@@ -24,6 +51,11 @@ final class MetadataKeyImpl<T> implements MetadataKey<T> {
         return this.type;
     }
 
+    @Override
+    public int getIndex() {
+        return this.index;
+    }
+
     @Override
     public T cast(Object object) throws ClassCastException {
         Objects.requireNonNull(object, "object");
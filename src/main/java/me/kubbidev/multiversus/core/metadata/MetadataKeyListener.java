@@ -0,0 +1,25 @@
+package me.kubbidev.multiversus.core.metadata;
+
+/**
+ * Listens to the keys being added to and removed from a {@link MetadataMap}.
+ *
+ * <p>Methods are called while the map is locked, and should therefore return quickly
+ * and never call back into the map.</p>
+ */
+public interface MetadataKeyListener {
+
+    /**
+     * Called when a value is mapped to a key which had no value in the map.
+     *
+     * @param key the key
+     */
+    void keyAdded(MetadataKey<?> key);
+
+    /**
+     * Called when the value mapped to a key is removed, or has expired.
+     *
+     * @param key the key
+     */
+    void keyRemoved(MetadataKey<?> key);
+
+}
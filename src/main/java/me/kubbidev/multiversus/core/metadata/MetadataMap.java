@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableMap;
 import me.kubbidev.multiversus.core.metadata.value.TransientValue;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -19,7 +20,18 @@ import java.util.function.Supplier;
 public interface MetadataMap {
 
     static MetadataMap create() {
-        return new MetadataMapImpl();
+        return new MetadataMapImpl(null);
+    }
+
+    /**
+     * Creates a map which notifies the given listener of the keys being added and removed.
+     *
+     * @param listener the listener
+     * @return a new metadata map
+     */
+    static MetadataMap create(MetadataKeyListener listener) {
+        Objects.requireNonNull(listener, "listener");
+        return new MetadataMapImpl(listener);
     }
 
     /**
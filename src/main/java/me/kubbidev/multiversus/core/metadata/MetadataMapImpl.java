@@ -1,19 +1,54 @@
 package me.kubbidev.multiversus.core.metadata;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 import me.kubbidev.multiversus.core.metadata.value.TransientValue;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+/**
+ * Values are stored in an array slot at the {@link MetadataKey#getIndex() index} of their key,
+ * which grows on demand, so that reads are an array load which never takes the lock, only
+ * writes do. Reads check and remove the expired transient value of the key they look up, while
+ * the other transient values with a known {@link TransientValue#getExpiryTime() expiry time}
+ * are expired by the housekeeper through the {@link MetadataExpiryQueue}.
+ */
 final class MetadataMapImpl implements MetadataMap {
-    private final Map<MetadataKey<?>, Object> map = new HashMap<>();
+    private static final AtomicReferenceArray<Entry> NO_SLOTS = new AtomicReferenceArray<>(0);
+
+    /**
+     * The entries by key index, replaced by a larger copy under the lock when a key does not fit.
+     */
+    private volatile AtomicReferenceArray<Entry> slots = NO_SLOTS;
+
+    /**
+     * The amount of non empty slots, only written with the lock held.
+     */
+    private volatile int size;
+
+    /**
+     * Transient values without known expiry time, which must all be checked during map maintenance.
+     */
+    private final Set<Entry> unboundedTransients = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * If {@link #unboundedTransients} is not empty, read without the lock.
+     */
+    private volatile boolean hasUnboundedTransients;
+
     private final ReentrantLock lock = new ReentrantLock();
 
+    @Nullable
+    private final MetadataKeyListener listener;
+
+    MetadataMapImpl(@Nullable MetadataKeyListener listener) {
+        this.listener = listener;
+    }
+
     @Override
     public <T> void put(MetadataKey<T> key, T value) {
         internalPut(key, value);
@@ -30,21 +65,13 @@ final class MetadataMapImpl implements MetadataMap {
 
         this.lock.lock();
         try {
-            MetadataKey<?> existing = null;
-            for (MetadataKey<?> k : this.map.keySet()) {
-                if (k.equals(key)) {
-                    existing = k;
-                    break;
-                }
-            }
-
-            if (existing != null && !existing.getType().equals(key.getType())) {
+            @Nullable Entry existing = slot(key);
+            if (existing != null && !sameType(existing.key, key)) {
                 throw new ClassCastException("Cannot cast key with id " + key.getId() + " with type "
-                        + key.getType().getRawType() + " to existing stored type " + existing.getType().getRawType());
+                        + key.getType().getRawType() + " to existing stored type " + existing.key.getType().getRawType());
             }
 
-            this.map.put(key, value);
-
+            store(new Entry(existing != null ? existing.key : key, value));
         } finally {
             this.lock.unlock();
         }
@@ -66,7 +93,7 @@ final class MetadataMapImpl implements MetadataMap {
 
         this.lock.lock();
         try {
-            this.map.put(key, value);
+            store(new Entry(key, value));
         } finally {
             this.lock.unlock();
         }
@@ -88,8 +115,11 @@ final class MetadataMapImpl implements MetadataMap {
 
         this.lock.lock();
         try {
-            cleanup();
-            return this.map.putIfAbsent(key, value) == null;
+            if (lookup(key) != null) {
+                return false;
+            }
+            store(new Entry(key, value));
+            return true;
         } finally {
             this.lock.unlock();
         }
@@ -99,51 +129,11 @@ final class MetadataMapImpl implements MetadataMap {
     public <T> Optional<T> get(MetadataKey<T> key) {
         Objects.requireNonNull(key, "key");
 
-        this.lock.lock();
-        try {
-            Map.Entry<MetadataKey<?>, Object> existing = null;
-
-            // try to locate an existing entry, and expire any values at the same time.
-            Iterator<Map.Entry<MetadataKey<?>, Object>> it = this.map.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<MetadataKey<?>, Object> kv = it.next();
-
-                if (kv.getValue() instanceof TransientValue<?>) {
-                    Object unboxed = ((TransientValue<?>) kv.getValue()).getOrNull();
-
-                    // if it has expired
-                    if (unboxed == null) {
-                        it.remove();
-                        continue;
-                    }
-
-                    // copy out the unboxed value
-                    if (kv.getKey().equals(key)) {
-                        existing = Maps.immutableEntry(kv.getKey(), unboxed);
-                        break;
-                    }
-
-                } else {
-                    if (kv.getKey().equals(key)) {
-                        existing = kv;
-                        break;
-                    }
-                }
-            }
-
-            if (existing == null) {
-                return Optional.empty();
-            }
-
-            if (!existing.getKey().getType().equals(key.getType())) {
-                throw new ClassCastException("Cannot cast key with id " + key.getId() + " with type "
-                        + key.getType().getRawType() + " to existing stored type " + existing.getKey().getType().getRawType());
-            }
-
-            return Optional.of(key.cast(existing.getValue()));
-        } finally {
-            this.lock.unlock();
+        @Nullable Entry existing = lookup(key);
+        if (existing == null) {
+            return Optional.empty();
         }
+        return Optional.of(cast(existing, key));
     }
 
     @Override
@@ -176,52 +166,24 @@ final class MetadataMapImpl implements MetadataMap {
         Objects.requireNonNull(key, "key");
         Objects.requireNonNull(def, "def");
 
+        // most calls find an existing value, which does not require the lock
+        @Nullable Entry existing = lookup(key);
+        if (existing != null) {
+            return cast(existing, key);
+        }
+
         this.lock.lock();
         try {
-            Map.Entry<MetadataKey<?>, Object> existing = null;
-
-            // try to locate an existing entry, and expire any values at the same time.
-            Iterator<Map.Entry<MetadataKey<?>, Object>> it = this.map.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<MetadataKey<?>, Object> kv = it.next();
-
-                if (kv.getValue() instanceof TransientValue<?>) {
-                    Object unboxed = ((TransientValue<?>) kv.getValue()).getOrNull();
-
-                    // if it has expired
-                    if (unboxed == null) {
-                        it.remove();
-                        continue;
-                    }
-
-                    // copy out the unboxed value
-                    if (kv.getKey().equals(key)) {
-                        existing = Maps.immutableEntry(kv.getKey(), unboxed);
-                        break;
-                    }
-
-                } else {
-                    if (kv.getKey().equals(key)) {
-                        existing = kv;
-                        break;
-                    }
-                }
+            existing = lookup(key);
+            if (existing != null) {
+                return cast(existing, key);
             }
 
-            if (existing == null) {
-                T t = def.get();
-                Objects.requireNonNull(t, "supplied def");
-
-                this.map.put(key, t);
-                return t;
-            }
+            T t = def.get();
+            Objects.requireNonNull(t, "supplied def");
 
-            if (!existing.getKey().getType().equals(key.getType())) {
-                throw new ClassCastException("Cannot cast key with id " + key.getId() + " with type "
-                        + key.getType().getRawType() + " to existing stored type " + existing.getKey().getType().getRawType());
-            }
-
-            return key.cast(existing.getValue());
+            store(new Entry(key, t));
+            return t;
         } finally {
             this.lock.unlock();
         }
@@ -232,57 +194,28 @@ final class MetadataMapImpl implements MetadataMap {
         Objects.requireNonNull(key, "key");
         Objects.requireNonNull(def, "def");
 
+        @Nullable Entry existing = lookup(key);
+        if (existing != null) {
+            return cast(existing, key);
+        }
+
         this.lock.lock();
         try {
-            Map.Entry<MetadataKey<?>, Object> existing = null;
-
-            // try to locate an existing entry, and expire any values at the same time.
-            Iterator<Map.Entry<MetadataKey<?>, Object>> it = this.map.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<MetadataKey<?>, Object> kv = it.next();
-
-                if (kv.getValue() instanceof TransientValue<?>) {
-                    Object unboxed = ((TransientValue<?>) kv.getValue()).getOrNull();
-
-                    // if it has expired
-                    if (unboxed == null) {
-                        it.remove();
-                        continue;
-                    }
-
-                    // copy out the unboxed value
-                    if (kv.getKey().equals(key)) {
-                        existing = Maps.immutableEntry(kv.getKey(), unboxed);
-                        break;
-                    }
-
-                } else {
-                    if (kv.getKey().equals(key)) {
-                        existing = kv;
-                        break;
-                    }
-                }
+            existing = lookup(key);
+            if (existing != null) {
+                return cast(existing, key);
             }
 
-            if (existing == null) {
-                TransientValue<T> t = def.get();
-                Objects.requireNonNull(t, "supplied def");
-
-                T value = t.getOrNull();
-                if (value == null) {
-                    throw new IllegalArgumentException("Transient value already expired: " + t);
-                }
+            TransientValue<T> t = def.get();
+            Objects.requireNonNull(t, "supplied def");
 
-                this.map.put(key, t);
-                return value;
+            T value = t.getOrNull();
+            if (value == null) {
+                throw new IllegalArgumentException("Transient value already expired: " + t);
             }
 
-            if (!existing.getKey().getType().equals(key.getType())) {
-                throw new ClassCastException("Cannot cast key with id " + key.getId() + " with type "
-                        + key.getType().getRawType() + " to existing stored type " + existing.getKey().getType().getRawType());
-            }
-
-            return key.cast(existing.getValue());
+            store(new Entry(key, t));
+            return value;
         } finally {
             this.lock.unlock();
         }
@@ -292,32 +225,8 @@ final class MetadataMapImpl implements MetadataMap {
     public boolean has(MetadataKey<?> key) {
         Objects.requireNonNull(key, "key");
 
-        this.lock.lock();
-        try {
-            Map.Entry<MetadataKey<?>, Object> existing = null;
-
-            // try to locate an existing entry, and expire any values at the same time.
-            Iterator<Map.Entry<MetadataKey<?>, Object>> it = this.map.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<MetadataKey<?>, Object> kv = it.next();
-
-                if (kv.getValue() instanceof TransientValue<?>) {
-                    if (((TransientValue<?>) kv.getValue()).shouldExpire()) {
-                        it.remove();
-                        continue;
-                    }
-                }
-
-                if (kv.getKey().equals(key)) {
-                    existing = kv;
-                    break;
-                }
-            }
-
-            return existing != null && existing.getKey().getType().equals(key.getType());
-        } finally {
-            this.lock.unlock();
-        }
+        @Nullable Entry existing = lookup(key);
+        return existing != null && sameType(existing.key, key);
     }
 
     @Override
@@ -326,7 +235,13 @@ final class MetadataMapImpl implements MetadataMap {
 
         this.lock.lock();
         try {
-            return this.map.remove(key) != null;
+            @Nullable Entry removed = slot(key);
+            if (removed != null) {
+                clearSlot(removed);
+                removeUnbounded(removed);
+                notifyRemoved(removed);
+            }
+            return removed != null;
         } finally {
             this.lock.unlock();
         }
@@ -336,7 +251,18 @@ final class MetadataMapImpl implements MetadataMap {
     public void clear() {
         this.lock.lock();
         try {
-            this.map.clear();
+            AtomicReferenceArray<Entry> slots = this.slots;
+            for (int i = 0; i < slots.length(); i++) {
+                @Nullable Entry entry = slots.get(i);
+                if (entry != null) {
+                    unqueue(entry);
+                    notifyRemoved(entry);
+                }
+            }
+            this.slots = NO_SLOTS;
+            this.size = 0;
+            this.unboundedTransients.clear();
+            this.hasUnboundedTransients = false;
         } finally {
             this.lock.unlock();
         }
@@ -346,30 +272,259 @@ final class MetadataMapImpl implements MetadataMap {
     public ImmutableMap<MetadataKey<?>, Object> asMap() {
         this.lock.lock();
         try {
-            return ImmutableMap.copyOf(this.map);
+            ImmutableMap.Builder<MetadataKey<?>, Object> builder = ImmutableMap.builder();
+            AtomicReferenceArray<Entry> slots = this.slots;
+            for (int i = 0; i < slots.length(); i++) {
+                @Nullable Entry entry = slots.get(i);
+                if (entry != null) {
+                    builder.put(entry.key, entry.value);
+                }
+            }
+            return builder.build();
         } finally {
             this.lock.unlock();
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Values with a known expiry time are expired by the housekeeper when due, so
+     * this only checks the transient values without known expiry time, if any.</p>
+     */
     @Override
     public boolean isEmpty() {
+        if (this.hasUnboundedTransients) {
+            this.lock.lock();
+            try {
+                cleanupUnbounded();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+        return this.size == 0;
+    }
+
+    @Override
+    public void cleanup() {
         this.lock.lock();
         try {
-            cleanup();
-            return this.map.isEmpty();
+            AtomicReferenceArray<Entry> slots = this.slots;
+            for (int i = 0; i < slots.length(); i++) {
+                @Nullable Entry entry = slots.get(i);
+                if (entry != null && entry.value instanceof TransientValue<?> && ((TransientValue<?>) entry.value).shouldExpire()) {
+                    clearSlot(entry);
+                    notifyRemoved(entry);
+                }
+            }
+            cleanupUnbounded();
         } finally {
             this.lock.unlock();
         }
     }
 
-    @Override
-    public void cleanup() {
+    /**
+     * Expires a value registered in the {@link MetadataExpiryQueue} once due.
+     *
+     * @param entry the entry holding the value
+     */
+    void expire(Entry entry) {
         this.lock.lock();
         try {
-            this.map.values().removeIf(o -> o instanceof TransientValue<?> && ((TransientValue<?>) o).shouldExpire());
+            // the queue is done with the entry
+            entry.expiry = null;
+
+            // the value was replaced or removed in the meantime
+            if (slot(entry.key) != entry) {
+                return;
+            }
+
+            if (((TransientValue<?>) entry.value).shouldExpire()) {
+                clearSlot(entry);
+                notifyRemoved(entry);
+            } else {
+                // the value did not expire on time, check it on every maintenance from now on
+                this.unboundedTransients.add(entry);
+                this.hasUnboundedTransients = true;
+            }
         } finally {
             this.lock.unlock();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Expires the transient values without known expiry time, must be called with the lock held.
+     */
+    private void cleanupUnbounded() {
+        Iterator<Entry> it = this.unboundedTransients.iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (slot(entry.key) != entry) {
+                it.remove();
+            } else if (((TransientValue<?>) entry.value).shouldExpire()) {
+                clearSlot(entry);
+                notifyRemoved(entry);
+                it.remove();
+            }
+        }
+        this.hasUnboundedTransients = !this.unboundedTransients.isEmpty();
+    }
+
+    private void removeUnbounded(Entry entry) {
+        if (this.unboundedTransients.remove(entry)) {
+            this.hasUnboundedTransients = !this.unboundedTransients.isEmpty();
+        }
+    }
+
+    /**
+     * Stores an entry and indexes it if it holds a transient value, must be called with the lock held.
+     */
+    private void store(Entry entry) {
+        int index = entry.key.getIndex();
+        AtomicReferenceArray<Entry> slots = this.slots;
+        if (index >= slots.length()) {
+            slots = grow(slots, index);
+        }
+
+        @Nullable Entry previous = slots.getAndSet(index, entry);
+        if (previous != null) {
+            unqueue(previous);
+            removeUnbounded(previous);
+        } else {
+            this.size++;
+            if (this.listener != null) {
+                this.listener.keyAdded(entry.key);
+            }
+        }
+
+        if (entry.value instanceof TransientValue<?>) {
+            if (entry.expiryTime == Long.MAX_VALUE) {
+                this.unboundedTransients.add(entry);
+                this.hasUnboundedTransients = true;
+            } else {
+                entry.expiry = MetadataExpiryQueue.register(this, entry);
+            }
+        }
+    }
+
+    /**
+     * Locates the entry mapped to the given key, removing it if its value has expired.
+     *
+     * @param key the key
+     * @return the entry, with its value unboxed if it was transient, or null if absent
+     */
+    private @Nullable Entry lookup(MetadataKey<?> key) {
+        @Nullable Entry entry = slot(key);
+        if (entry == null || !(entry.value instanceof TransientValue<?>)) {
+            return entry;
+        }
+
+        Object unboxed = ((TransientValue<?>) entry.value).getOrNull();
+
+        // if it has expired
+        if (unboxed == null) {
+            // removed under the lock, so that it is never lost in a copy of the slots
+            // and its removal never reordered with an addition of the same key
+            this.lock.lock();
+            try {
+                if (slot(key) == entry) {
+                    clearSlot(entry);
+                    notifyRemoved(entry);
+                }
+            } finally {
+                this.lock.unlock();
+            }
+            return null;
+        }
+
+        // copy out the unboxed value
+        return new Entry(entry.key, unboxed);
+    }
+
+    private @Nullable Entry slot(MetadataKey<?> key) {
+        int index = key.getIndex();
+        AtomicReferenceArray<Entry> slots = this.slots;
+        return index < slots.length() ? slots.get(index) : null;
+    }
+
+    /**
+     * Empties the slot of an entry which is known to be stored, must be called with the lock held.
+     */
+    private void clearSlot(Entry entry) {
+        this.slots.set(entry.key.getIndex(), null);
+        this.size--;
+        unqueue(entry);
+    }
+
+    /**
+     * Cancels the expiry of an entry which left its slot, if it was registered in
+     * the {@link MetadataExpiryQueue}, must be called with the lock held.
+     */
+    private static void unqueue(Entry entry) {
+        @Nullable MetadataExpiryQueue.Expiry expiry = entry.expiry;
+        if (expiry != null) {
+            entry.expiry = null;
+            MetadataExpiryQueue.cancel(expiry);
+        }
+    }
+
+    /**
+     * Copies the slots into a larger array holding the given index, must be called with the lock held.
+     */
+    private AtomicReferenceArray<Entry> grow(AtomicReferenceArray<Entry> slots, int index) {
+        AtomicReferenceArray<Entry> grown = new AtomicReferenceArray<>(Math.max(index + 1, slots.length() * 2));
+        for (int i = 0; i < slots.length(); i++) {
+            grown.set(i, slots.get(i));
+        }
+        this.slots = grown;
+        return grown;
+    }
+
+    private void notifyRemoved(Entry entry) {
+        if (this.listener != null) {
+            this.listener.keyRemoved(entry.key);
+        }
+    }
+
+    private static <T> T cast(Entry existing, MetadataKey<T> key) {
+        if (!sameType(existing.key, key)) {
+            throw new ClassCastException("Cannot cast key with id " + key.getId() + " with type "
+                    + key.getType().getRawType() + " to existing stored type " + existing.key.getType().getRawType());
+        }
+        return key.cast(existing.value);
+    }
+
+    /**
+     * Keys are interned when created, so two keys of the same index usually have the same
+     * type only if they are the same instance.
+     */
+    private static boolean sameType(MetadataKey<?> a, MetadataKey<?> b) {
+        return a == b || a.getType().equals(b.getType());
+    }
+
+    /**
+     * A value along with the key it was stored with.
+     */
+    static final class Entry {
+        private final MetadataKey<?> key;
+        private final Object value;
+        private final long expiryTime;
+
+        /**
+         * The expiry of the value while it is registered in the {@link MetadataExpiryQueue},
+         * only accessed with the lock of the map held.
+         */
+        @Nullable
+        private MetadataExpiryQueue.Expiry expiry;
+
+        private Entry(MetadataKey<?> key, Object value) {
+            this.key = key;
+            this.value = value;
+            this.expiryTime = value instanceof TransientValue<?> ? ((TransientValue<?>) value).getExpiryTime() : Long.MAX_VALUE;
+        }
+
+        long getExpiryTime() {
+            return this.expiryTime;
+        }
+    }
+}
@@ -1,9 +1,7 @@
 package me.kubbidev.multiversus.core.metadata;
 
-import com.google.common.reflect.TypeToken;
-import me.kubbidev.multiversus.core.metadata.cooldown.CooldownMap;
+import me.kubbidev.multiversus.core.metadata.cooldown.SkillCooldownTable;
 import me.kubbidev.multiversus.core.modifier.skill.SkillModifierMap;
-import me.kubbidev.multiversus.core.skill.handler.SkillHandler;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 
@@ -12,20 +10,19 @@ public final class MetadataProvider {
     }
 
     /**
-     * Metadata key used to retrieve {@link LivingEntity} cooldown map from memory.
+     * Metadata key used to retrieve {@link LivingEntity} skill cooldowns from memory.
      */
-    public static final MetadataKey<CooldownMap<SkillHandler<?>>> COOLDOWN_MAP = MetadataKey.create("cooldown_map",
-            new TypeToken<CooldownMap<SkillHandler<?>>>() {});
+    public static final MetadataKey<SkillCooldownTable> COOLDOWN_TABLE = MetadataKey.create("cooldown_table", SkillCooldownTable.class);
 
     /**
-     * Gets the provided {@link LivingEntity}'s cooldown map associated to him.
+     * Gets the provided {@link LivingEntity}'s skill cooldowns associated to him.
      *
-     * @param entity The entity owning the map.
-     * @return cooldown map or new instance if not found
+     * @param entity The entity owning the cooldowns.
+     * @return cooldown table or new instance if not found
      */
-    public static CooldownMap<SkillHandler<?>> getCooldownMap(Entity entity) {
+    public static SkillCooldownTable getCooldownTable(Entity entity) {
         MetadataMap metadataMap = Metadata.provide(entity);
-        return metadataMap.getOrPut(COOLDOWN_MAP, CooldownMap::create);
+        return metadataMap.getOrPut(COOLDOWN_TABLE, SkillCooldownTable::new);
     }
 
     /**
@@ -8,11 +8,14 @@ import me.kubbidev.multiversus.core.metadata.registry.type.PlayerMetadataRegistr
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.ref.WeakReference;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The Metadata registries provided by helper.
@@ -32,12 +35,79 @@ final class StandardMetadataRegistries {
         return VALUES;
     }
 
-    private static final class PlayerRegistry extends AbstractMetadataRegistry<UUID> implements PlayerMetadataRegistry {
+    /**
+     * A registry which remembers the objects its maps were provided for, so that key lookups
+     * return them directly instead of resolving every unique id through Bukkit.
+     *
+     * @param <E> the object type
+     */
+    private abstract static class HandleRegistry<E extends Entity> extends AbstractMetadataRegistry<UUID> {
+        private final Map<UUID, WeakReference<E>> handles = new ConcurrentHashMap<>();
+
+        protected MetadataMap provideHandle(E handle) {
+            UUID uuid = handle.getUniqueId();
+            @Nullable WeakReference<E> existing = this.handles.get(uuid);
+            if (existing == null || existing.get() != handle) {
+                this.handles.put(uuid, new WeakReference<>(handle));
+            }
+            return provide(uuid);
+        }
+
+        protected abstract @Nullable E lookup(UUID uuid);
+
+        private @Nullable E resolve(UUID uuid) {
+            @Nullable WeakReference<E> existing = this.handles.get(uuid);
+            @Nullable E handle = existing == null ? null : existing.get();
+            if (handle != null && handle.isValid()) {
+                return handle;
+            }
+
+            // the map was provided from its unique id, or the object was reloaded since
+            handle = lookup(uuid);
+            if (handle != null) {
+                this.handles.put(uuid, new WeakReference<>(handle));
+            }
+            return handle;
+        }
+
+        protected <K> Map<E, K> getAllWithKey0(MetadataKey<K> key) {
+            Objects.requireNonNull(key, "key");
+            ImmutableMap.Builder<E, K> ret = ImmutableMap.builder();
+            for (UUID uuid : getHolders(key)) {
+                @Nullable MetadataMap map = this.cache.getIfPresent(uuid);
+                if (map == null) {
+                    continue;
+                }
+
+                map.get(key).ifPresent(t -> {
+                    @Nullable E handle = resolve(uuid);
+                    if (handle != null) {
+                        ret.put(handle, t);
+                    }
+                });
+            }
+            return ret.build();
+        }
+
+        @Override
+        public void remove(UUID id) {
+            super.remove(id);
+            this.handles.remove(id);
+        }
+
+        @Override
+        public void cleanup() {
+            super.cleanup();
+            this.handles.keySet().removeIf(uuid -> this.cache.getIfPresent(uuid) == null);
+        }
+    }
+
+    private static final class PlayerRegistry extends HandleRegistry<Player> implements PlayerMetadataRegistry {
 
         @Override
         public MetadataMap provide(Player player) {
             Objects.requireNonNull(player, "player");
-            return provide(player.getUniqueId());
+            return provideHandle(player);
         }
 
         @Override
@@ -48,24 +118,21 @@ final class StandardMetadataRegistries {
 
         @Override
         public <K> Map<Player, K> getAllWithKey(MetadataKey<K> key) {
-            Objects.requireNonNull(key, "key");
-            ImmutableMap.Builder<Player, K> ret = ImmutableMap.builder();
-            this.cache.forEach((uuid, map) -> map.get(key).ifPresent(t -> {
-                Player player = Bukkit.getPlayer(uuid);
-                if (player != null) {
-                    ret.put(player, t);
-                }
-            }));
-            return ret.build();
+            return getAllWithKey0(key);
+        }
+
+        @Override
+        protected @Nullable Player lookup(UUID uuid) {
+            return Bukkit.getPlayer(uuid);
         }
     }
 
-    private static final class EntityRegistry extends AbstractMetadataRegistry<UUID> implements EntityMetadataRegistry {
+    private static final class EntityRegistry extends HandleRegistry<Entity> implements EntityMetadataRegistry {
 
         @Override
         public MetadataMap provide(Entity entity) {
             Objects.requireNonNull(entity, "entity");
-            return provide(entity.getUniqueId());
+            return provideHandle(entity);
         }
 
         @Override
@@ -76,15 +143,12 @@ final class StandardMetadataRegistries {
 
         @Override
         public <K> Map<Entity, K> getAllWithKey(MetadataKey<K> key) {
-            Objects.requireNonNull(key, "key");
-            ImmutableMap.Builder<Entity, K> ret = ImmutableMap.builder();
-            this.cache.forEach((uuid, map) -> map.get(key).ifPresent(t -> {
-                Entity entity = Bukkit.getEntity(uuid);
-                if (entity != null) {
-                    ret.put(entity, t);
-                }
-            }));
-            return ret.build();
+            return getAllWithKey0(key);
+        }
+
+        @Override
+        protected @Nullable Entity lookup(UUID uuid) {
+            return Bukkit.getEntity(uuid);
         }
     }
-}
\ No newline at end of file
+}
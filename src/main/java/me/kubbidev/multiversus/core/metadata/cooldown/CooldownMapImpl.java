@@ -1,19 +1,17 @@
 package me.kubbidev.multiversus.core.metadata.cooldown;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 class CooldownMapImpl<T> implements CooldownMap<T> {
-    private final Map<T, Cooldown> cache = new HashMap<>();
+    private final Map<T, Cooldown> cache = new ConcurrentHashMap<>();
 
     @Override
     public Optional<Cooldown> get(T key) {
         Objects.requireNonNull(key, "key");
-        return this.cache.containsKey(key)
-                ? Optional.ofNullable(this.cache.get(key))
-                : Optional.empty();
+        return Optional.ofNullable(this.cache.get(key));
     }
 
     @Override
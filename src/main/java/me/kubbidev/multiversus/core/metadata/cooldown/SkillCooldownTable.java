@@ -0,0 +1,195 @@
+package me.kubbidev.multiversus.core.metadata.cooldown;
+
+import com.google.common.base.Preconditions;
+import me.kubbidev.multiversus.core.skill.handler.SkillHandler;
+import org.jetbrains.annotations.Range;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The skill cooldowns of an entity.
+ * <p>
+ * Cooldowns are stored as the time in milliseconds at which they end, in a primitive array
+ * indexed by {@link SkillHandler#getIndex() handler index}, rather than one {@link Cooldown}
+ * instance per skill. Reads never take a lock, so cooldowns can be displayed every tick from
+ * any thread, while writes are synchronized and grow the array when a handler does not fit.
+ */
+public final class SkillCooldownTable {
+    private static final AtomicLongArray EMPTY = new AtomicLongArray(0);
+
+    /**
+     * The time at which the cooldown of every handler ends, or zero if it never started.
+     */
+    private volatile AtomicLongArray expiries = EMPTY;
+
+    /**
+     * @param handler The skill handler
+     * @return The time in milliseconds at which the cooldown ends,
+     * which may be in the past, or zero if it never started
+     */
+    public long getExpiryTime(SkillHandler<?> handler) {
+        int index = handler.getIndex();
+        AtomicLongArray expiries = this.expiries;
+        return index < expiries.length() ? expiries.get(index) : 0L;
+    }
+
+    public boolean isOnCooldown(SkillHandler<?> handler) {
+        return getExpiryTime(handler) > System.currentTimeMillis();
+    }
+
+    /**
+     * @param handler The skill handler
+     * @return The time in milliseconds until the cooldown ends, or zero if it is not active
+     */
+    public long remainingMillis(SkillHandler<?> handler) {
+        return Math.max(0L, getExpiryTime(handler) - System.currentTimeMillis());
+    }
+
+    public long remainingTime(SkillHandler<?> handler, TimeUnit unit) {
+        return unit.convert(remainingMillis(handler), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts the cooldown of a skill, replacing the current one if active.
+     *
+     * @param handler The skill handler
+     * @param amount  The cooldown duration
+     * @param unit    The unit of the duration
+     */
+    public synchronized void applyCooldown(SkillHandler<?> handler, long amount, TimeUnit unit) {
+        Preconditions.checkArgument(amount >= 0, "Cooldown duration must be non-negative");
+        slots(handler.getIndex()).set(handler.getIndex(), System.currentTimeMillis() + unit.toMillis(amount));
+    }
+
+    /**
+     * Starts the cooldown of a skill if it is not active.
+     *
+     * @param handler The skill handler
+     * @param amount  The cooldown duration
+     * @param unit    The unit of the duration
+     * @return True if the cooldown was not active and was started
+     */
+    public synchronized boolean test(SkillHandler<?> handler, long amount, TimeUnit unit) {
+        Preconditions.checkArgument(amount >= 0, "Cooldown duration must be non-negative");
+        long now = System.currentTimeMillis();
+        if (getExpiryTime(handler) > now) {
+            return false;
+        }
+
+        slots(handler.getIndex()).set(handler.getIndex(), now + unit.toMillis(amount));
+        return true;
+    }
+
+    /**
+     * Reduces the remaining cooldown time of a skill by a percentage.
+     *
+     * @param handler The skill handler
+     * @param p       The percentage by which to reduce the remaining cooldown, in the range from 0 to 1
+     */
+    public synchronized void reduceRemainingCooldown(SkillHandler<?> handler, @Range(from = 0, to = 1) float p) {
+        Preconditions.checkArgument(p >= 0 && p <= 1, "percentage must be between 0 and 1");
+        long remaining = remainingMillis(handler);
+        if (remaining > 0) {
+            this.expiries.set(handler.getIndex(), getExpiryTime(handler) - (long) (remaining * p));
+        }
+    }
+
+    /**
+     * Reduces the remaining cooldown time of a skill by a flat amount.
+     *
+     * @param handler The skill handler
+     * @param amount  The amount by which to reduce the remaining cooldown
+     * @param unit    The unit of the amount
+     */
+    public synchronized void reduceFlat(SkillHandler<?> handler, long amount, TimeUnit unit) {
+        Preconditions.checkArgument(amount >= 0, "Reduction amount must be non-negative");
+        if (remainingMillis(handler) > 0) {
+            this.expiries.set(handler.getIndex(), getExpiryTime(handler) - unit.toMillis(amount));
+        }
+    }
+
+    /**
+     * Ends the cooldown of a skill.
+     *
+     * @param handler The skill handler
+     */
+    public synchronized void reset(SkillHandler<?> handler) {
+        int index = handler.getIndex();
+        if (index < this.expiries.length()) {
+            this.expiries.set(index, 0L);
+        }
+    }
+
+    /**
+     * Fills the given buffer with the remaining time in milliseconds of the
+     * cooldown of every handler, at the index of the handler, or zero if it
+     * is not active. The buffer would usually be reused between calls and
+     * have a length of {@link SkillHandler#getIndexCount()}.
+     *
+     * @param buffer The buffer to fill
+     * @return The amount of active cooldowns written to the buffer
+     */
+    public int getRemainingMillis(long[] buffer) {
+        long now = System.currentTimeMillis();
+        AtomicLongArray expiries = this.expiries;
+        int length = Math.min(buffer.length, expiries.length());
+        int active = 0;
+        for (int i = 0; i < length; i++) {
+            long remaining = Math.max(0L, expiries.get(i) - now);
+            buffer[i] = remaining;
+            if (remaining > 0) {
+                active++;
+            }
+        }
+        for (int i = length; i < buffer.length; i++) {
+            buffer[i] = 0L;
+        }
+        return active;
+    }
+
+    /**
+     * Replaces the cooldowns of this table with the ones of another table,
+     * for instance when an entity is replaced by another one.
+     *
+     * @param other The table to copy cooldowns from
+     */
+    public void copyFrom(SkillCooldownTable other) {
+        Objects.requireNonNull(other, "other");
+        AtomicLongArray source = other.expiries;
+        AtomicLongArray copy = new AtomicLongArray(source.length());
+        for (int i = 0; i < source.length(); i++) {
+            copy.set(i, source.get(i));
+        }
+
+        synchronized (this) {
+            this.expiries = copy;
+        }
+    }
+
+    /**
+     * Ends every cooldown.
+     */
+    public synchronized void clear() {
+        this.expiries = EMPTY;
+    }
+
+    /**
+     * Gets the cooldowns array, replaced by a larger copy if it does not
+     * hold the given index. Must be called while synchronized.
+     */
+    private AtomicLongArray slots(int index) {
+        AtomicLongArray expiries = this.expiries;
+        if (index < expiries.length()) {
+            return expiries;
+        }
+
+        AtomicLongArray grown = new AtomicLongArray(Math.max(index + 1, SkillHandler.getIndexCount()));
+        for (int i = 0; i < expiries.length(); i++) {
+            grown.set(i, expiries.get(i));
+        }
+        this.expiries = grown;
+        return grown;
+    }
+}
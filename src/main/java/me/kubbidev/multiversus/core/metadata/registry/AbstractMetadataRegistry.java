@@ -1,26 +1,33 @@
 package me.kubbidev.multiversus.core.metadata.registry;
 
 import me.kubbidev.multiversus.cache.LoadingMap;
+import me.kubbidev.multiversus.core.metadata.MetadataKey;
+import me.kubbidev.multiversus.core.metadata.MetadataKeyListener;
 import me.kubbidev.multiversus.core.metadata.MetadataMap;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A basic implementation of {@link MetadataRegistry} using a LoadingCache.
+ * <p>
+ * The registry also indexes the objects whose map holds a value for every key, which
+ * is kept up to date by the maps themselves when keys are added, removed or expire.
  *
  * @param <T> the type
  */
 public class AbstractMetadataRegistry<T> implements MetadataRegistry<T> {
-    private static final Function<?, MetadataMap> LOADER = new Loader<>();
+    protected final LoadingMap<T, MetadataMap> cache = LoadingMap.of(this::createMap);
 
-    @SuppressWarnings("unchecked")
-    private static <T> Function<T, MetadataMap> getLoader() {
-        return (Function<T, MetadataMap>) LOADER;
-    }
-
-    protected final LoadingMap<T, MetadataMap> cache = LoadingMap.of(getLoader());
+    /**
+     * The objects whose map holds a value for every key.
+     */
+    private final Map<MetadataKey<?>, Set<T>> keyIndex = new ConcurrentHashMap<>();
 
     @Override
     public MetadataMap provide(T id) {
@@ -44,15 +51,70 @@ public class AbstractMetadataRegistry<T> implements MetadataRegistry<T> {
 
     @Override
     public void cleanup() {
-        // MetadataMap#isEmpty also removes expired values
+        // values with a known expiry time are expired through the MetadataExpiryQueue,
+        // MetadataMap#isEmpty only checks the remaining transient values
         this.cache.values().removeIf(MetadataMap::isEmpty);
     }
 
-    private static final class Loader<T> implements Function<T, MetadataMap> {
+    private MetadataMap createMap(T id) {
+        KeyIndexer indexer = new KeyIndexer(id);
+        MetadataMap map = MetadataMap.create(indexer);
+        indexer.map = map;
+        return map;
+    }
+
+    /**
+     * Gets the objects whose map holds a value for the given key, without going through every map.
+     *
+     * <p>The value of a transient key may have expired but not yet been removed, so the maps
+     * should still be queried for the value itself.</p>
+     *
+     * @param key the key
+     * @return an unmodifiable live view of the objects
+     */
+    protected Set<T> getHolders(MetadataKey<?> key) {
+        Objects.requireNonNull(key, "key");
+        @Nullable Set<T> holders = this.keyIndex.get(key);
+        return holders == null ? Collections.emptySet() : Collections.unmodifiableSet(holders);
+    }
+
+    /**
+     * Keeps the index up to date with the keys of one map.
+     * <p>
+     * A map which was evicted from the cache may still be used by whoever held a
+     * reference to it, so its changes are ignored once another map was loaded for
+     * the same object, as the index must only reflect the live map.
+     */
+    private final class KeyIndexer implements MetadataKeyListener {
+        private final T id;
+
+        /**
+         * The map notifying this indexer, set right after its creation.
+         */
+        private volatile MetadataMap map;
+
+        private KeyIndexer(T id) {
+            this.id = id;
+        }
+
+        @Override
+        public void keyAdded(MetadataKey<?> key) {
+            if (AbstractMetadataRegistry.this.cache.getIfPresent(this.id) != this.map) {
+                return;
+            }
+            AbstractMetadataRegistry.this.keyIndex.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(this.id);
+        }
 
         @Override
-        public MetadataMap apply(T t) {
-            return MetadataMap.create();
+        public void keyRemoved(MetadataKey<?> key) {
+            @Nullable MetadataMap live = AbstractMetadataRegistry.this.cache.getIfPresent(this.id);
+            if (live != null && live != this.map) {
+                return;
+            }
+            @Nullable Set<T> holders = AbstractMetadataRegistry.this.keyIndex.get(key);
+            if (holders != null) {
+                holders.remove(this.id);
+            }
         }
     }
 }
\ No newline at end of file
@@ -25,4 +25,16 @@ public interface TransientValue<T> {
      */
     boolean shouldExpire();
 
+    /**
+     * Returns the time at which this value will expire, if it is known in advance.
+     *
+     * <p>Values with a known expiry time are expired in order by the {@link MetadataMap}
+     * holding them, without having to check every other transient value.</p>
+     *
+     * @return the expiry time in milliseconds since the epoch, or {@link Long#MAX_VALUE} if unknown
+     */
+    default long getExpiryTime() {
+        return Long.MAX_VALUE;
+    }
+
 }
\ No newline at end of file
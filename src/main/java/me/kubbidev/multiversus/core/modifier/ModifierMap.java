@@ -1,5 +1,6 @@
 package me.kubbidev.multiversus.core.modifier;
 
+import com.google.common.base.Preconditions;
 import me.kubbidev.multiversus.core.util.Closeable;
 import me.kubbidev.multiversus.core.util.EquipmentSlot;
 import org.bukkit.entity.LivingEntity;
@@ -7,13 +8,25 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
+/**
+ * The modifiers of an entity, by uuid.
+ * <p>
+ * Modifiers are stored in an immutable {@link Snapshot} which is replaced by a new one every
+ * time modifiers are added or removed. Writes are serialized, but reads never take any lock
+ * and always see a consistent state of the map, so modifiers can safely be read off the main
+ * thread (e.g. to compute stats displayed by a scoreboard). Modifiers are added and removed
+ * far less often than they are read, which makes copying them on every write worth it.
+ *
+ * @param <T> The modifiers stored
+ */
 public abstract class ModifierMap<T extends EntityModifier> {
     private final LivingEntity entity;
 
     /**
-     * This hashmap encapsulate all {@link EntityModifier} present in this modifier map.
+     * The current state of this map, replaced on every write.
      */
-    private final Map<UUID, T> modifiers = new HashMap<>();
+    @SuppressWarnings("unchecked")
+    private volatile Snapshot<T> snapshot = (Snapshot<T>) Snapshot.EMPTY;
 
     public ModifierMap(LivingEntity entity) {
         this.entity = entity;
@@ -24,48 +37,124 @@ public abstract class ModifierMap<T extends EntityModifier> {
     }
 
     /**
-     * @return The {@link T Modifier}s that have been manipulated so far since the
-     * entity has spawn.
+     * @return An unmodifiable snapshot of the {@link T Modifier}s that have been manipulated
+     * so far since the entity has spawn.
      * <p>
-     * {@link T Modifier}s are completely flushed when the server restarts.
+     * {@link T Modifier}s are not saved along with the entity, unlike the skill modifiers
+     * saved by the {@link me.kubbidev.multiversus.core.modifier.persistence.ModifierPersistence}.
      */
     public Collection<T> getModifiers() {
-        return this.modifiers.values();
+        return this.snapshot.modifiers.values();
     }
 
-    public List<T> isolateModifiers(EquipmentSlot hand) {
-        List<T> isolated = new ArrayList<>();
+    /**
+     * @param uuid The uuid of the desired modifier.
+     * @return The modifier with given uuid, or <code>null</code> if not found
+     */
+    public @Nullable T getModifier(UUID uuid) {
+        return this.snapshot.modifiers.get(uuid);
+    }
 
-        for (T modifier : getModifiers()) {
-            if (hand.isCompatible(modifier)) {
-                isolated.add(modifier);
-            }
-        }
-        return isolated;
+    /**
+     * @param hand The action hand
+     * @return An unmodifiable snapshot of the modifiers which should be taken into
+     * account given the action hand
+     * @see EquipmentSlot#isCompatible(EntityModifier)
+     */
+    public List<T> isolateModifiers(EquipmentSlot hand) {
+        Preconditions.checkArgument(hand.isHand(), "Equipment slot must be a hand");
+        Snapshot<T> snapshot = this.snapshot;
+        return hand == EquipmentSlot.MAIN_HAND ? snapshot.mainHandModifiers : snapshot.offHandModifiers;
     }
 
-    public @Nullable T addModifier(T modifier) {
-        return this.modifiers.put(modifier.getUniqueId(), modifier);
+    public synchronized @Nullable T addModifier(T modifier) {
+        Map<UUID, T> modifiers = new LinkedHashMap<>(this.snapshot.modifiers);
+        @Nullable T previous = modifiers.put(modifier.getUniqueId(), modifier);
+        this.snapshot = new Snapshot<>(modifiers);
+        return previous;
     }
 
-    public @Nullable T removeModifier(UUID uuid) {
-        @Nullable T removed = this.modifiers.remove(uuid);
+    public synchronized @Nullable T removeModifier(UUID uuid) {
+        if (!this.snapshot.modifiers.containsKey(uuid)) {
+            return null;
+        }
+
+        Map<UUID, T> modifiers = new LinkedHashMap<>(this.snapshot.modifiers);
+        T removed = modifiers.remove(uuid);
+        this.snapshot = new Snapshot<>(modifiers);
+
         if (removed instanceof Closeable) {
             ((Closeable) removed).close();
         }
         return removed;
     }
 
-    public void removeModifiers(String key) {
-        Iterator<T> iterator = this.modifiers.values().iterator();
+    /**
+     * Removes a modifier, only if it is still the modifier registered with its uuid.
+     *
+     * @param modifier The modifier to remove
+     * @return True if the modifier was removed
+     */
+    public synchronized boolean removeModifier(T modifier) {
+        if (this.snapshot.modifiers.get(modifier.getUniqueId()) != modifier) {
+            return false;
+        }
+        removeModifier(modifier.getUniqueId());
+        return true;
+    }
+
+    public synchronized void removeModifiers(String key) {
+        Map<UUID, T> modifiers = new LinkedHashMap<>(this.snapshot.modifiers);
+        List<T> removed = new ArrayList<>();
+
+        Iterator<T> iterator = modifiers.values().iterator();
         while (iterator.hasNext()) {
             T skill = iterator.next();
             if (skill.getKey().equals(key)) {
-                if (skill instanceof Closeable) {
-                    ((Closeable) skill).close();
-                }
                 iterator.remove();
+                removed.add(skill);
             }
         }
+
+        if (removed.isEmpty()) {
+            return;
+        }
+        this.snapshot = new Snapshot<>(modifiers);
+
+        for (T skill : removed) {
+            if (skill instanceof Closeable) {
+                ((Closeable) skill).close();
+            }
+        }
+    }
+
+    /**
+     * Immutable state of a {@link ModifierMap}, along with the modifiers compatible with
+     * every hand so that isolating them does not require to go through all the modifiers.
+     */
+    private static final class Snapshot<T extends EntityModifier> {
+        private static final Snapshot<EntityModifier> EMPTY = new Snapshot<>(Collections.emptyMap());
+
+        private final Map<UUID, T> modifiers;
+        private final List<T> mainHandModifiers;
+        private final List<T> offHandModifiers;
+
+        private Snapshot(Map<UUID, T> modifiers) {
+            List<T> mainHandModifiers = new ArrayList<>();
+            List<T> offHandModifiers = new ArrayList<>();
+            for (T modifier : modifiers.values()) {
+                int compatibility = EquipmentSlot.getCompatibility(modifier.getSource(), modifier.getSlot());
+                if ((compatibility & EquipmentSlot.MAIN_HAND.getHandMask()) != 0) {
+                    mainHandModifiers.add(modifier);
+                }
+                if ((compatibility & EquipmentSlot.OFF_HAND.getHandMask()) != 0) {
+                    offHandModifiers.add(modifier);
+                }
+            }
+
+            this.modifiers = Collections.unmodifiableMap(modifiers);
+            this.mainHandModifiers = Collections.unmodifiableList(mainHandModifiers);
+            this.offHandModifiers = Collections.unmodifiableList(offHandModifiers);
+        }
     }
-}
\ No newline at end of file
+}
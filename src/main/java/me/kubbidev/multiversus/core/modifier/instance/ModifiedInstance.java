@@ -7,6 +7,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -17,6 +18,17 @@ import java.util.function.Predicate;
 public abstract class ModifiedInstance<T extends InstanceModifier> {
     protected final Map<UUID, T> modifiers = new ConcurrentHashMap<>();
 
+    /**
+     * Sum of the flat modifiers and product of the relative modifiers compatible
+     * with the main hand, updated every time modifiers are registered or removed.
+     */
+    private volatile Totals totals = Totals.EMPTY;
+
+    /**
+     * Called every time modifiers are registered or removed.
+     */
+    private final List<Runnable> updateListeners = new CopyOnWriteArrayList<>();
+
     /**
      * @param base The base value without modifiers.
      * @return The final modified value taking, into account the default value
@@ -25,7 +37,8 @@ public abstract class ModifiedInstance<T extends InstanceModifier> {
      * relative-based modifiers are applied afterwards, onto the sum of the base value + flat modifiers.
      */
     public double getTotal(double base) {
-        return getFilteredTotal(base, EquipmentSlot.MAIN_HAND::isCompatible, mod -> mod);
+        Totals totals = this.totals;
+        return (base + totals.flat) * totals.relative;
     }
 
     /**
@@ -90,12 +103,49 @@ public abstract class ModifiedInstance<T extends InstanceModifier> {
         return this.modifiers.get(uniqueId);
     }
 
-    public void registerModifier(T modifier) {
+    public synchronized void registerModifier(T modifier) {
         this.modifiers.put(modifier.getUniqueId(), modifier);
+        updateTotals();
+    }
+
+    public synchronized void removeModifier(UUID uniqueId) {
+        if (this.modifiers.remove(uniqueId) != null) {
+            updateTotals();
+        }
+    }
+
+    /**
+     * Unregisters a modifier, only if it is still the modifier registered with its uuid.
+     * <p>
+     * Unlike {@link #removeModifier(UUID)} the modifier is closed if it is {@link Closeable}.
+     *
+     * @param modifier The modifier to remove
+     * @return True if the modifier was removed
+     */
+    public synchronized boolean removeModifier(T modifier) {
+        if (!this.modifiers.remove(modifier.getUniqueId(), modifier)) {
+            return false;
+        }
+        if (modifier instanceof Closeable) ((Closeable) modifier).close();
+        updateTotals();
+        return true;
+    }
+
+    /**
+     * Registers a listener called every time modifiers are registered or removed,
+     * for instance to invalidate values computed from this instance.
+     * <p>
+     * Listeners are called while this instance is locked, so they should not do
+     * anything more than taking note of the update.
+     *
+     * @param listener The listener
+     */
+    public void addUpdateListener(Runnable listener) {
+        this.updateListeners.add(listener);
     }
 
-    public void removeModifier(UUID uniqueId) {
-        this.modifiers.remove(uniqueId);
+    public void removeUpdateListener(Runnable listener) {
+        this.updateListeners.remove(listener);
     }
 
     public boolean isEmpty() {
@@ -108,26 +158,59 @@ public abstract class ModifiedInstance<T extends InstanceModifier> {
      *
      * @param condition Condition on the modifier key
      */
-    public void removeIf(Predicate<String> condition) {
+    public synchronized void removeIf(Predicate<String> condition) {
+        boolean removed = false;
         for (Iterator<T> iterator = modifiers.values().iterator(); iterator.hasNext(); ) {
             T modifier = iterator.next();
 
             if (condition.test(modifier.getKey())) {
                 if (modifier instanceof Closeable) ((Closeable) modifier).close();
                 iterator.remove();
+                removed = true;
             }
         }
+
+        if (removed) {
+            updateTotals();
+        }
+    }
+
+    /**
+     * Computes again the totals used by {@link #getTotal(double)}.
+     * <p>
+     * Modifiers are registered and removed far less often than totals are
+     * read, so they are computed once here instead of on every read.
+     */
+    private void updateTotals() {
+        double flat = 0;
+        double relative = 1;
+        for (T mod : this.modifiers.values()) {
+            if (!EquipmentSlot.MAIN_HAND.isCompatible(mod)) {
+                continue;
+            }
+
+            if (mod.getType() == ModifierType.FLAT) {
+                flat += mod.getValue();
+            } else if (mod.getType() == ModifierType.RELATIVE) {
+                relative *= 1 + mod.getValue() / 100.0;
+            }
+        }
+        this.totals = new Totals(flat, relative);
+
+        for (Runnable listener : this.updateListeners) {
+            listener.run();
+        }
     }
 
     /**
      * @return All registered modifiers
      */
     public Collection<T> getModifiers() {
-        return this.modifiers.values();
+        return Collections.unmodifiableCollection(this.modifiers.values());
     }
 
     public Set<UUID> getIds() {
-        return this.modifiers.keySet();
+        return Collections.unmodifiableSet(this.modifiers.keySet());
     }
 
     /**
@@ -137,4 +220,19 @@ public abstract class ModifiedInstance<T extends InstanceModifier> {
     public boolean contains(UUID uniqueId) {
         return this.modifiers.containsKey(uniqueId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Immutable totals so that both values are always read consistently.
+     */
+    private static final class Totals {
+        private static final Totals EMPTY = new Totals(0, 1);
+
+        private final double flat;
+        private final double relative;
+
+        private Totals(double flat, double relative) {
+            this.flat = flat;
+            this.relative = relative;
+        }
+    }
+}
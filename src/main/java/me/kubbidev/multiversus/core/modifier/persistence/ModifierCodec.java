@@ -0,0 +1,43 @@
+package me.kubbidev.multiversus.core.modifier.persistence;
+
+import me.kubbidev.multiversus.core.modifier.EntityModifier;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes and reads one type of {@link EntityModifier} so that it can be saved in the
+ * persistent data of an entity, see {@link ModifierPersistence}.
+ * <p>
+ * Plugins defining their own modifier types must register a codec for each of them in the
+ * {@link ModifierCodecRegistry}, otherwise their modifiers are not saved.
+ *
+ * @param <T> The type of modifier
+ */
+public interface ModifierCodec<T extends EntityModifier> {
+
+    /**
+     * Gets the identifier of this codec, which is saved along with every modifier.
+     * <p>
+     * It must never change once modifiers were saved, and should be prefixed
+     * by the plugin name to avoid collisions.
+     *
+     * @return The identifier of this codec
+     */
+    String getId();
+
+    /**
+     * Gets the exact class of the modifiers handled by this codec.
+     * <p>
+     * Subclasses are not handled by the codec of their parent class, as
+     * it would not know about the state they add.
+     *
+     * @return The class of the modifiers
+     */
+    Class<T> getType();
+
+    void write(T modifier, DataOutput out) throws IOException;
+
+    T read(DataInput in) throws IOException;
+}
@@ -0,0 +1,39 @@
+package me.kubbidev.multiversus.core.modifier.persistence;
+
+import com.google.common.base.Preconditions;
+import me.kubbidev.multiversus.core.modifier.EntityModifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * All the {@link ModifierCodec}s known by the plugin, by identifier and by modifier type.
+ */
+public final class ModifierCodecRegistry {
+    private final Map<String, ModifierCodec<?>> codecsById = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ModifierCodec<?>> codecsByType = new ConcurrentHashMap<>();
+
+    public synchronized void register(ModifierCodec<?> codec) {
+        Preconditions.checkArgument(!this.codecsById.containsKey(codec.getId()),
+                "A modifier codec with the same id already exists");
+        Preconditions.checkArgument(!this.codecsByType.containsKey(codec.getType()),
+                "A modifier codec for the same modifier type already exists");
+
+        this.codecsById.put(codec.getId(), codec);
+        this.codecsByType.put(codec.getType(), codec);
+    }
+
+    public @Nullable ModifierCodec<?> getCodec(String id) {
+        return this.codecsById.get(id);
+    }
+
+    /**
+     * @param modifier A modifier
+     * @return The codec of the exact class of the modifier, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends EntityModifier> @Nullable ModifierCodec<T> getCodec(T modifier) {
+        return (ModifierCodec<T>) this.codecsByType.get(modifier.getClass());
+    }
+}
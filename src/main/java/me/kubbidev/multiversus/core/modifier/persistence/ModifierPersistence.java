@@ -0,0 +1,248 @@
+package me.kubbidev.multiversus.core.modifier.persistence;
+
+import com.google.common.base.Preconditions;
+import me.kubbidev.multiversus.FBukkitPlugin;
+import me.kubbidev.multiversus.core.metadata.Metadata;
+import me.kubbidev.multiversus.core.metadata.MetadataMap;
+import me.kubbidev.multiversus.core.metadata.MetadataProvider;
+import me.kubbidev.multiversus.core.modifier.EntityModifier;
+import me.kubbidev.multiversus.core.modifier.skill.SkillModifier;
+import me.kubbidev.multiversus.core.modifier.skill.SkillModifierInstance;
+import me.kubbidev.multiversus.core.modifier.skill.SkillModifierMap;
+import me.kubbidev.multiversus.core.skill.handler.SkillHandler;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Saves the {@link SkillModifierMap} of entities in their persistent data when they are
+ * unloaded, so that long-lived entities such as named mobs and bosses keep their modifiers
+ * across chunk unloads and server restarts.
+ * <p>
+ * Modifiers are written in a compact binary format using the {@link ModifierCodec} registered
+ * for their type, along with the remaining duration of timed modifiers. The saved modifiers are
+ * read back when the entity is loaded, from the main thread, so that the modifier map returned by
+ * {@link MetadataProvider#getModifierMap(Entity)} can be read from any thread without touching the
+ * persistent data or the {@link me.kubbidev.multiversus.core.manager.ModifierExpiryManager}.
+ * <p>
+ * Only persistent non player entities are saved. This must only be used from the main thread.
+ */
+public final class ModifierPersistence implements Listener {
+    private static final int VERSION = 1;
+
+    /**
+     * Singleton instance, only set when modifier persistence is enabled.
+     */
+    @Nullable
+    private static ModifierPersistence instance = null;
+
+    private final FBukkitPlugin plugin;
+    private final NamespacedKey key;
+
+    private ModifierPersistence(FBukkitPlugin plugin) {
+        this.plugin = plugin;
+        this.key = new NamespacedKey(plugin.getLoader(), "modifiers");
+    }
+
+    public static void setup(FBukkitPlugin plugin) {
+        Preconditions.checkArgument(instance == null, "Modifier persistence already setup");
+
+        instance = new ModifierPersistence(plugin);
+        // register listener events to the bukkit plugin manager instance.
+        plugin.getBootstrap().getServer().getPluginManager().registerEvents(instance, plugin.getLoader());
+
+        // entities loaded before the plugin was enabled
+        for (World world : plugin.getBootstrap().getServer().getWorlds()) {
+            for (LivingEntity entity : world.getLivingEntities()) {
+                instance.load(entity);
+            }
+        }
+    }
+
+    /**
+     * Saves the modifiers of every loaded entity, called when the plugin is disabled
+     * since worlds are saved after plugins are disabled.
+     */
+    public static void shutdown() {
+        if (instance == null) {
+            return;
+        }
+        for (World world : instance.plugin.getBootstrap().getServer().getWorlds()) {
+            for (LivingEntity entity : world.getLivingEntities()) {
+                instance.save(entity);
+            }
+        }
+        instance = null;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void loadEntities(EntitiesLoadEvent e) {
+        for (Entity entity : e.getEntities()) {
+            load(entity);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void saveEntities(EntitiesUnloadEvent e) {
+        for (Entity entity : e.getEntities()) {
+            save(entity);
+        }
+    }
+
+    private static boolean isPersistent(Entity entity) {
+        return entity instanceof LivingEntity && !(entity instanceof Player) && entity.isPersistent();
+    }
+
+    /**
+     * Registers the modifiers saved in the persistent data of an entity, if any.
+     *
+     * @param entity The entity being loaded
+     */
+    private void load(Entity entity) {
+        if (!isPersistent(entity) || !entity.getPersistentDataContainer().has(this.key, PersistentDataType.BYTE_ARRAY)) {
+            return;
+        }
+        read(entity, MetadataProvider.getModifierMap(entity));
+    }
+
+    private void save(Entity entity) {
+        if (!isPersistent(entity)) {
+            return;
+        }
+
+        // entities which never had a modifier map have nothing to save
+        Optional<MetadataMap> metadataMap = Metadata.get(entity);
+        @Nullable SkillModifierMap modifierMap = metadataMap.isPresent() ? metadataMap.get().getOrNull(MetadataProvider.SKILL_MODIFIER_MAP) : null;
+        if (modifierMap == null) {
+            return;
+        }
+
+        // the same modifier is registered in the instance of every skill it applies to
+        Map<UUID, SkillModifier> modifiers = new LinkedHashMap<>();
+        for (SkillModifierInstance modifierInstance : modifierMap.getInstances()) {
+            for (SkillModifier modifier : modifierInstance.getModifiers()) {
+                modifiers.putIfAbsent(modifier.getUniqueId(), modifier);
+            }
+        }
+
+        PersistentDataContainer container = entity.getPersistentDataContainer();
+        if (modifiers.isEmpty()) {
+            container.remove(this.key);
+            return;
+        }
+        try {
+            container.set(this.key, PersistentDataType.BYTE_ARRAY, write(modifiers.values()));
+        } catch (IOException e) {
+            this.plugin.getLogger().warn("Could not save modifiers of entity '" + entity.getUniqueId() + "': " + e.getMessage());
+        }
+    }
+
+    private byte[] write(Iterable<SkillModifier> modifiers) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        ByteArrayOutputStream modifierBytes = new ByteArrayOutputStream();
+        DataOutputStream modifierOut = new DataOutputStream(modifierBytes);
+
+        int count = 0;
+        for (SkillModifier modifier : modifiers) {
+            if (this.plugin.getModifierCodecRegistry().getCodec(modifier) != null) {
+                count++;
+            }
+        }
+        out.writeByte(VERSION);
+        out.writeInt(count);
+
+        for (SkillModifier modifier : modifiers) {
+            @Nullable ModifierCodec<SkillModifier> codec = this.plugin.getModifierCodecRegistry().getCodec(modifier);
+            if (codec == null) {
+                continue;
+            }
+
+            modifierBytes.reset();
+            codec.write(modifier, modifierOut);
+            modifierOut.flush();
+
+            // modifiers are length prefixed so that unknown codecs can be skipped
+            out.writeUTF(codec.getId());
+            out.writeLong(this.plugin.getModifierExpiryManager().getRemainingTicks(modifier));
+            out.writeInt(modifierBytes.size());
+            modifierBytes.writeTo(out);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void read(Entity entity, SkillModifierMap modifierMap) {
+        @Nullable byte[] data = entity.getPersistentDataContainer().get(this.key, PersistentDataType.BYTE_ARRAY);
+        if (data == null) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unknown format version " + version);
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                long remainingTicks = in.readLong();
+                // a corrupted length must not allocate more than what is left
+                int length = in.readInt();
+                if (length < 0 || length > in.available()) {
+                    throw new IOException("Invalid modifier length " + length);
+                }
+                byte[] modifierData = new byte[length];
+                in.readFully(modifierData);
+
+                @Nullable ModifierCodec<?> codec = this.plugin.getModifierCodecRegistry().getCodec(id);
+                if (codec == null) {
+                    this.plugin.getLogger().warn("Could not load modifier of entity '" + entity.getUniqueId() + "': unknown codec '" + id + "'");
+                    continue;
+                }
+
+                EntityModifier modifier = codec.read(new DataInputStream(new ByteArrayInputStream(modifierData)));
+                if (!(modifier instanceof SkillModifier)) {
+                    this.plugin.getLogger().warn("Could not load modifier of entity '" + entity.getUniqueId() + "': codec '" + id + "' is not a skill modifier codec");
+                    continue;
+                }
+                // timed modifiers which expired while being saved
+                if (remainingTicks == 0) {
+                    continue;
+                }
+                restore(modifierMap, (SkillModifier) modifier, remainingTicks);
+            }
+        } catch (IOException | RuntimeException e) {
+            this.plugin.getLogger().warn("Could not load modifiers of entity '" + entity.getUniqueId() + "': " + e.getMessage());
+        }
+    }
+
+    private void restore(SkillModifierMap modifierMap, SkillModifier modifier, long remainingTicks) {
+        for (SkillHandler<?> handler : modifier.getSkills()) {
+            SkillModifierInstance modifierInstance = modifierMap.getInstance(handler, modifier.getParameter());
+            if (remainingTicks > 0) {
+                this.plugin.getModifierExpiryManager().registerModifier(modifierInstance, modifier, remainingTicks);
+            } else {
+                modifierInstance.registerModifier(modifier);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package me.kubbidev.multiversus.core.modifier.persistence;
+
+import me.kubbidev.multiversus.core.manager.SkillManager;
+import me.kubbidev.multiversus.core.modifier.ModifierSource;
+import me.kubbidev.multiversus.core.modifier.ModifierType;
+import me.kubbidev.multiversus.core.modifier.skill.SkillModifier;
+import me.kubbidev.multiversus.core.skill.handler.SkillHandler;
+import me.kubbidev.multiversus.core.util.EquipmentSlot;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Codec of the plain {@link SkillModifier}s.
+ * <p>
+ * Skill handlers are saved by identifier, handlers which no longer
+ * exist when the modifier is read are ignored.
+ */
+public final class SkillModifierCodec implements ModifierCodec<SkillModifier> {
+    private final SkillManager skillManager;
+
+    public SkillModifierCodec(SkillManager skillManager) {
+        this.skillManager = skillManager;
+    }
+
+    @Override
+    public String getId() {
+        return "multiversus:skill_modifier";
+    }
+
+    @Override
+    public Class<SkillModifier> getType() {
+        return SkillModifier.class;
+    }
+
+    @Override
+    public void write(SkillModifier modifier, DataOutput out) throws IOException {
+        out.writeLong(modifier.getUniqueId().getMostSignificantBits());
+        out.writeLong(modifier.getUniqueId().getLeastSignificantBits());
+        out.writeUTF(modifier.getSource().name());
+        out.writeUTF(modifier.getSlot().name());
+        out.writeUTF(modifier.getKey());
+        out.writeDouble(modifier.getValue());
+        out.writeUTF(modifier.getType().name());
+        out.writeUTF(modifier.getParameter());
+
+        out.writeInt(modifier.getSkills().size());
+        for (SkillHandler<?> handler : modifier.getSkills()) {
+            out.writeUTF(handler.getId());
+        }
+    }
+
+    @Override
+    public SkillModifier read(DataInput in) throws IOException {
+        UUID uniqueId = new UUID(in.readLong(), in.readLong());
+        ModifierSource source = ModifierSource.valueOf(in.readUTF());
+        EquipmentSlot slot = EquipmentSlot.valueOf(in.readUTF());
+        String key = in.readUTF();
+        double value = in.readDouble();
+        ModifierType type = ModifierType.valueOf(in.readUTF());
+        String parameter = in.readUTF();
+
+        int size = in.readInt();
+        List<SkillHandler<?>> skills = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            @Nullable SkillHandler<?> handler = this.skillManager.getHandler(in.readUTF());
+            if (handler != null) {
+                skills.add(handler);
+            }
+        }
+        return new SkillModifier(uniqueId, source, slot, key, value, type, skills, parameter);
+    }
+}
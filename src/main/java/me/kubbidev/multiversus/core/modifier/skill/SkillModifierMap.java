@@ -2,37 +2,104 @@ package me.kubbidev.multiversus.core.modifier.skill;
 
 import me.kubbidev.multiversus.core.skill.Skill;
 import me.kubbidev.multiversus.core.skill.handler.SkillHandler;
+import me.kubbidev.multiversus.core.skill.handler.SkillParameter;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 public class SkillModifierMap {
     /**
-     * This map enables to calculate the skill buffs associated to a particular skill and a particular {@link SkillModifier}
+     * This array enables to calculate the skill buffs associated to a particular skill and a particular {@link SkillModifier}
      * without having to parse other modifiers.
      * <p>
-     * In particular this is done every time a skill is cast.
+     * In particular this is done every time a skill is cast, so instances are indexed by the
+     * {@link SkillParameterIdentifier#getId() id} of their parameter identifier and can be read
+     * without allocating anything nor taking any lock.
      */
-    private final Map<SkillParameterIdentifier, SkillModifierInstance> instances = new HashMap<>();
+    private volatile SkillModifierInstance[] instances = new SkillModifierInstance[0];
 
     public double calculateValue(Skill cast, String parameter) {
-        return getInstance(cast.getHandler(), parameter).getTotal(cast.getParameter(parameter));
+        double base = cast.getParameter(parameter);
+
+        @Nullable SkillModifierInstance instance = getInstanceOrNull(SkillParameterIdentifier.of(cast.getHandler(), parameter));
+        return instance == null ? base : instance.getTotal(base);
+    }
+
+    public double calculateValue(Skill cast, SkillParameter parameter) {
+        double base = cast.getParameter(parameter);
+
+        @Nullable SkillModifierInstance instance = getInstanceOrNull(cast.getHandler().getIdentifier(parameter));
+        return instance == null ? base : instance.getTotal(base);
+    }
+
+    /**
+     * @param cast The skill
+     * @return The final value of every parameter of the skill, by parameter slot,
+     * or {@link Double#NaN} for parameters the skill has no value for
+     */
+    public double[] calculateValues(Skill cast) {
+        SkillHandler<?> handler = cast.getHandler();
+        double[] values = new double[handler.getParameterCount()];
+        for (int slot = 0; slot < values.length; slot++) {
+            SkillParameter parameter = handler.getParameter(slot);
+            values[slot] = cast.hasParameter(parameter) ? calculateValue(cast, parameter) : Double.NaN;
+        }
+        return values;
     }
 
     /**
      * @return The {@link SkillModifierInstance}s that have been manipulated so far since the
      * entity has spawn.
      * <p>
-     * {@link SkillModifierInstance}s are completely flushed when the server restarts.
+     * {@link SkillModifierInstance}s are completely flushed when the server restarts, unless
+     * their entity is saved by the {@link me.kubbidev.multiversus.core.modifier.persistence.ModifierPersistence}.
      */
     public Collection<SkillModifierInstance> getInstances() {
-        return this.instances.values();
+        List<SkillModifierInstance> instances = new ArrayList<>();
+        for (SkillModifierInstance instance : this.instances) {
+            if (instance != null) {
+                instances.add(instance);
+            }
+        }
+        return instances;
     }
 
     public SkillModifierInstance getInstance(SkillHandler<?> handler, String skill) {
-        SkillParameterIdentifier identifier = new SkillParameterIdentifier(handler, skill);
+        SkillParameterIdentifier identifier = SkillParameterIdentifier.of(handler.getId(), skill);
+        @Nullable SkillModifierInstance instance = getInstanceOrNull(identifier);
+        if (instance != null) {
+            return instance;
+        }
         // return the modifier instance of the skill handler or new one if not found.
-        return this.instances.computeIfAbsent(identifier, id -> new SkillModifierInstance(id.getHandler(), id.getParameter()));
+        return createInstance(identifier, handler);
+    }
+
+    /**
+     * @param identifier The parameter identifier
+     * @return The modifier instance of the parameter, or null if no modifier
+     * was ever registered for that parameter
+     */
+    public @Nullable SkillModifierInstance getInstanceOrNull(SkillParameterIdentifier identifier) {
+        SkillModifierInstance[] instances = this.instances;
+        int id = identifier.getId();
+        return id < instances.length ? instances[id] : null;
+    }
+
+    private synchronized SkillModifierInstance createInstance(SkillParameterIdentifier identifier, SkillHandler<?> handler) {
+        SkillModifierInstance[] instances = this.instances;
+        int id = identifier.getId();
+        if (id < instances.length && instances[id] != null) {
+            return instances[id];
+        }
+
+        // copy on write so that readers never see a partially filled array
+        SkillModifierInstance[] copy = Arrays.copyOf(instances, Math.max(instances.length, id + 1));
+        SkillModifierInstance instance = new SkillModifierInstance(handler, identifier.getParameter());
+        copy[id] = instance;
+        this.instances = copy;
+        return instance;
     }
-}
\ No newline at end of file
+}
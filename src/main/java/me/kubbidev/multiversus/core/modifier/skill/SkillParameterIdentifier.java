@@ -1,20 +1,106 @@
 package me.kubbidev.multiversus.core.modifier.skill;
 
 import me.kubbidev.multiversus.core.skill.handler.SkillHandler;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class SkillParameterIdentifier {
-    private final SkillHandler<?> handler;
+/**
+ * Identifies a parameter of a skill handler.
+ * <p>
+ * Identifiers are interned: there is only one instance per (handler id, parameter) pair,
+ * obtained through {@link #of(String, String)}. Each of them is given a dense integer id,
+ * used to store per-entity data about skill parameters in arrays.
+ * <p>
+ * Identifiers only hold the handler id and never the handler itself, which
+ * is replaced by a new instance every time the skills are reloaded.
+ */
+public final class SkillParameterIdentifier {
+
+    /**
+     * Interned identifiers by handler id, then by parameter.
+     */
+    private static final Map<String, Map<String, SkillParameterIdentifier>> IDENTIFIERS = new ConcurrentHashMap<>();
+
+    /**
+     * Next identifier id.
+     */
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final int id;
+    private final String handlerId;
     private final String parameter;
 
-    public SkillParameterIdentifier(SkillHandler<?> handler, String parameter) {
-        this.handler = handler;
+    private SkillParameterIdentifier(int id, String handlerId, String parameter) {
+        this.id = id;
+        this.handlerId = handlerId;
         this.parameter = parameter;
     }
 
-    public SkillHandler<?> getHandler() {
-        return this.handler;
+    /**
+     * Creates a copy of the interned identifier of a skill handler parameter.
+     *
+     * @param handler   The skill handler
+     * @param parameter The skill parameter
+     * @deprecated Use {@link #of(SkillHandler, String)}, which does not allocate anything
+     */
+    @Deprecated
+    public SkillParameterIdentifier(SkillHandler<?> handler, String parameter) {
+        this(of(handler, parameter));
+    }
+
+    private SkillParameterIdentifier(SkillParameterIdentifier interned) {
+        this(interned.id, interned.handlerId, interned.parameter);
+    }
+
+    /**
+     * Gets the identifier of a skill handler parameter, interning it if needed.
+     *
+     * @param handler   The skill handler
+     * @param parameter The skill parameter
+     * @return The interned identifier
+     * @see #of(String, String)
+     */
+    public static SkillParameterIdentifier of(SkillHandler<?> handler, String parameter) {
+        return of(handler.getId(), parameter);
+    }
+
+    /**
+     * Gets the identifier of a skill handler parameter, interning it if needed.
+     * <p>
+     * This does not allocate anything once the identifier was interned.
+     *
+     * @param handlerId The skill handler id
+     * @param parameter The skill parameter
+     * @return The interned identifier
+     */
+    public static SkillParameterIdentifier of(String handlerId, String parameter) {
+        @Nullable Map<String, SkillParameterIdentifier> parameters = IDENTIFIERS.get(handlerId);
+        if (parameters != null) {
+            @Nullable SkillParameterIdentifier identifier = parameters.get(parameter);
+            if (identifier != null) {
+                return identifier;
+            }
+        }
+        return intern(handlerId, parameter);
+    }
+
+    private static synchronized SkillParameterIdentifier intern(String handlerId, String parameter) {
+        Map<String, SkillParameterIdentifier> parameters = IDENTIFIERS.computeIfAbsent(handlerId, id -> new ConcurrentHashMap<>());
+        return parameters.computeIfAbsent(parameter, p -> new SkillParameterIdentifier(NEXT_ID.getAndIncrement(), handlerId, p));
+    }
+
+    /**
+     * @return The dense integer id of this identifier, starting from zero.
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    public String getHandlerId() {
+        return this.handlerId;
     }
 
     public String getParameter() {
@@ -29,13 +115,12 @@ public class SkillParameterIdentifier {
         if (!(o instanceof SkillParameterIdentifier)) {
             return false;
         }
-        SkillParameterIdentifier other = (SkillParameterIdentifier) o;
-        return this.handler.equals(other.handler) &&
-                this.parameter.equals(other.parameter);
+        // copies made through the deprecated constructor share the id of the interned identifier
+        return this.id == ((SkillParameterIdentifier) o).id;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.handler, this.parameter);
+        return this.id;
     }
-}
\ No newline at end of file
+}
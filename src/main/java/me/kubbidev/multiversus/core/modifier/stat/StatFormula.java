@@ -0,0 +1,16 @@
+package me.kubbidev.multiversus.core.modifier.stat;
+
+/**
+ * Computes the value of a derived stat from the values of the stats it depends on,
+ * for instance the critical strike chance of an entity from its dexterity.
+ */
+@FunctionalInterface
+public interface StatFormula {
+
+    /**
+     * @param dependencies The values of the stats the derived stat depends on,
+     *                     in the order they were declared
+     * @return The value of the derived stat, before its own modifiers are applied
+     */
+    double compute(double[] dependencies);
+}
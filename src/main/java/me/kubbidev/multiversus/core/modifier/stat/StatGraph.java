@@ -0,0 +1,117 @@
+package me.kubbidev.multiversus.core.modifier.stat;
+
+import com.google.common.base.Preconditions;
+import me.kubbidev.multiversus.core.modifier.instance.ModifiedInstance;
+import me.kubbidev.multiversus.core.util.Closeable;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The stats of an entity and the dependencies between them.
+ * <p>
+ * A base stat is the total of a {@link ModifiedInstance}, while a derived stat is computed from
+ * other stats through a {@link StatFormula} and can optionally have its own modified instance,
+ * for instance the maximum mana of an entity computed from its intelligence plus the modifiers
+ * of the maximum mana itself.
+ * <p>
+ * Values are cached by every {@link StatNode} and computed again lazily, only after a modifier
+ * was registered in or removed from the instance of the stat or of one of the stats it depends
+ * on. Reading a stat which did not change is therefore a simple field load.
+ * <p>
+ * Dependencies must be registered before the stats depending on them, which
+ * guarantees that the graph never has any cycle.
+ */
+public final class StatGraph implements Closeable {
+    private final Map<String, StatNode> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Update listener registered on the modified instance of every stat, removed when the graph is closed.
+     */
+    private final Map<StatNode, Runnable> listeners = new HashMap<>();
+
+    /**
+     * Registers a base stat.
+     *
+     * @param id       The stat identifier
+     * @param instance The modified instance holding the stat modifiers
+     * @param base     The stat value without modifiers
+     * @return The node of the stat
+     */
+    public synchronized StatNode register(String id, ModifiedInstance<?> instance, double base) {
+        return register(new StatNode(id, Objects.requireNonNull(instance, "instance"), base, null, new StatNode[0]));
+    }
+
+    /**
+     * Registers a derived stat.
+     *
+     * @param id           The stat identifier
+     * @param instance     The modified instance holding the stat own modifiers, if any
+     * @param formula      Computes the stat value from the stats it depends on
+     * @param dependencies The identifiers of the stats it depends on, which must already be registered
+     * @return The node of the stat
+     */
+    public synchronized StatNode register(String id, @Nullable ModifiedInstance<?> instance, StatFormula formula, String... dependencies) {
+        Objects.requireNonNull(formula, "formula");
+        StatNode[] nodes = new StatNode[dependencies.length];
+        for (int i = 0; i < dependencies.length; i++) {
+            nodes[i] = getNodeOrThrow(dependencies[i]);
+        }
+
+        StatNode node = register(new StatNode(id, instance, 0, formula, nodes));
+        for (StatNode dependency : nodes) {
+            dependency.addDependent(node);
+        }
+        return node;
+    }
+
+    private StatNode register(StatNode node) {
+        Preconditions.checkArgument(!this.nodes.containsKey(node.getId()), "A stat with the same id already exists");
+        this.nodes.put(node.getId(), node);
+
+        @Nullable ModifiedInstance<?> instance = node.getInstance();
+        if (instance != null) {
+            Runnable listener = node::invalidate;
+            instance.addUpdateListener(listener);
+            this.listeners.put(node, listener);
+        }
+        return node;
+    }
+
+    public @Nullable StatNode getNode(String id) {
+        return this.nodes.get(id);
+    }
+
+    public StatNode getNodeOrThrow(String id) {
+        return Objects.requireNonNull(this.nodes.get(id), "Could not find stat with ID '" + id + "'");
+    }
+
+    /**
+     * Stats read very often should rather keep their {@link StatNode}
+     * to avoid looking it up on every read.
+     *
+     * @param id The stat identifier
+     * @return The final value of the stat
+     */
+    public double getValue(String id) {
+        return getNodeOrThrow(id).getValue();
+    }
+
+    public Collection<StatNode> getNodes() {
+        return Collections.unmodifiableCollection(this.nodes.values());
+    }
+
+    /**
+     * Detaches the graph from the modified instances of its stats, which no longer
+     * invalidate the cached values. This should be called once the graph is no longer
+     * used if its instances outlive it.
+     */
+    @Override
+    public synchronized void close() {
+        for (Map.Entry<StatNode, Runnable> entry : this.listeners.entrySet()) {
+            Objects.requireNonNull(entry.getKey().getInstance()).removeUpdateListener(entry.getValue());
+        }
+        this.listeners.clear();
+    }
+}
@@ -0,0 +1,127 @@
+package me.kubbidev.multiversus.core.modifier.stat;
+
+import me.kubbidev.multiversus.core.modifier.instance.ModifiedInstance;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A stat of a {@link StatGraph}, whose value is cached until one of the
+ * modified instances it depends on is updated.
+ * <p>
+ * Every update increments the version of the nodes downstream of the updated instance, and
+ * a node value is only computed again when it is read and its cached value was computed for
+ * an older version. Values are cached along with their version in an immutable holder, so
+ * nodes can be read from any thread without locking.
+ */
+public final class StatNode {
+    private final String id;
+
+    @Nullable
+    private final ModifiedInstance<?> instance;
+
+    private final double base;
+
+    @Nullable
+    private final StatFormula formula;
+
+    private final StatNode[] dependencies;
+
+    /**
+     * Nodes which depend on this node.
+     */
+    private final List<StatNode> dependents = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger version = new AtomicInteger();
+    private volatile CachedValue cached = CachedValue.NONE;
+
+    StatNode(String id, @Nullable ModifiedInstance<?> instance, double base, @Nullable StatFormula formula, StatNode[] dependencies) {
+        this.id = id;
+        this.instance = instance;
+        this.base = base;
+        this.formula = formula;
+        this.dependencies = dependencies;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * @return The modified instance holding the modifiers of this stat, if any
+     */
+    public @Nullable ModifiedInstance<?> getInstance() {
+        return this.instance;
+    }
+
+    /**
+     * @return True if this stat is computed from other stats
+     */
+    public boolean isDerived() {
+        return this.formula != null;
+    }
+
+    /**
+     * @return The final value of this stat, computed again only if
+     * the stats it depends on were updated since the last read
+     */
+    public double getValue() {
+        int version = this.version.get();
+        CachedValue cached = this.cached;
+        if (cached.version == version) {
+            return cached.value;
+        }
+
+        double value = compute();
+        this.cached = new CachedValue(value, version);
+        return value;
+    }
+
+    private double compute() {
+        double base = this.base;
+        if (this.formula != null) {
+            double[] values = new double[this.dependencies.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = this.dependencies[i].getValue();
+            }
+            base = this.formula.compute(values);
+        }
+        return this.instance == null ? base : this.instance.getTotal(base);
+    }
+
+    void addDependent(StatNode dependent) {
+        this.dependents.add(dependent);
+    }
+
+    /**
+     * Marks this node and every node downstream as out of date.
+     */
+    void invalidate() {
+        this.version.incrementAndGet();
+        for (StatNode dependent : this.dependents) {
+            dependent.invalidate();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StatNode(id=" + this.id + ")";
+    }
+
+    /**
+     * A computed value along with the version of the node it was computed for.
+     */
+    private static final class CachedValue {
+        private static final CachedValue NONE = new CachedValue(0, -1);
+
+        private final double value;
+        private final int version;
+
+        private CachedValue(double value, int version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+}
@@ -3,21 +3,29 @@ package me.kubbidev.multiversus.core.skill;
 import me.kubbidev.multiversus.FBukkitPlugin;
 import me.kubbidev.multiversus.core.UtilityMethod;
 import me.kubbidev.multiversus.core.skill.handler.SkillHandler;
+import me.kubbidev.multiversus.core.skill.handler.SkillParameter;
 import me.kubbidev.multiversus.core.util.LinearValue;
 import net.kyori.adventure.text.Component;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
 
 import java.text.DecimalFormat;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
 public class RegisteredSkill {
     private final SkillHandler<?> handler;
-    private final Map<String, LinearValue> defaultParameters = new HashMap<>();
-    private final Map<String, DecimalFormat> decimalFormats = new HashMap<>();
+
+    /**
+     * Default parameter values, indexed by {@link SkillParameter#getSlot() slot}.
+     */
+    private final LinearValue[] defaultParameters;
+
+    /**
+     * Parameter decimal formats, indexed by {@link SkillParameter#getSlot() slot}.
+     */
+    private final DecimalFormat[] decimalFormats;
 
     private final Component name;
     private final List<Component> lore;
@@ -30,16 +38,18 @@ public class RegisteredSkill {
         this.lore = UtilityMethod.deserialize(Objects.requireNonNull(config.getStringList("lore"), "Could not find skill lore"));
         this.icon = UtilityMethod.readIcon(Objects.requireNonNull(config.getString("icon"), "Could not find skill icon"));
 
-        for (String param : handler.getParameters()) {
-            ConfigurationSection section = config.getConfigurationSection(param);
+        this.defaultParameters = new LinearValue[handler.getParameterCount()];
+        this.decimalFormats = new DecimalFormat[handler.getParameterCount()];
+        for (SkillParameter param : handler.getParameterKeys()) {
+            ConfigurationSection section = config.getConfigurationSection(param.getName());
             if (section == null) {
-                this.defaultParameters.put(param, LinearValue.ZERO);
+                this.defaultParameters[param.getSlot()] = LinearValue.ZERO;
             } else {
                 String decimalFormat = config.getString("decimal-format");
                 if (decimalFormat != null) {
-                    this.decimalFormats.put(param, new DecimalFormat(decimalFormat));
+                    this.decimalFormats[param.getSlot()] = new DecimalFormat(decimalFormat);
                 }
-                this.defaultParameters.put(param, new LinearValue(section));
+                this.defaultParameters[param.getSlot()] = new LinearValue(section);
             }
         }
     }
@@ -61,19 +71,49 @@ public class RegisteredSkill {
     }
 
     public boolean hasParameter(String parameter) {
-        return this.defaultParameters.containsKey(parameter);
+        @Nullable SkillParameter param = this.handler.getParameter(parameter);
+        return param != null && hasParameter(param);
+    }
+
+    public boolean hasParameter(SkillParameter parameter) {
+        return parameter.getSlot() < this.defaultParameters.length && this.handler.hasParameter(parameter);
     }
 
     public void addParameter(String parameter, LinearValue linear) {
-        this.defaultParameters.put(parameter, linear);
+        addParameter(this.handler.getParameterOrThrow(parameter), linear);
+    }
+
+    public void addParameter(SkillParameter parameter, LinearValue linear) {
+        this.defaultParameters[slot(parameter)] = linear;
     }
 
     public double getParameter(String modifier, int level) {
-        return this.defaultParameters.get(modifier).calculate(level);
+        return getParameter(this.handler.getParameterOrThrow(modifier), level);
+    }
+
+    public double getParameter(SkillParameter parameter, int level) {
+        return this.defaultParameters[slot(parameter)].calculate(level);
     }
 
     public DecimalFormat getDecimalFormat(FBukkitPlugin plugin, String parameter) {
-        return this.decimalFormats.getOrDefault(parameter, plugin.getConfiguration().getDecimalFormat());
+        return getDecimalFormat(plugin, this.handler.getParameterOrThrow(parameter));
+    }
+
+    public DecimalFormat getDecimalFormat(FBukkitPlugin plugin, SkillParameter parameter) {
+        @Nullable DecimalFormat decimalFormat = this.decimalFormats[slot(parameter)];
+        return decimalFormat == null ? plugin.getConfiguration().getDecimalFormat() : decimalFormat;
+    }
+
+    /**
+     * @param parameter A parameter of the skill handler
+     * @return The slot of the parameter in this skill tables
+     */
+    private int slot(SkillParameter parameter) {
+        // parameters registered after the skill was loaded have no value
+        if (!hasParameter(parameter)) {
+            throw new IllegalArgumentException("Skill '" + this.handler.getId() + "' has no parameter '" + parameter.getName() + "'");
+        }
+        return parameter.getSlot();
     }
 
     @Override
@@ -2,20 +2,24 @@ package me.kubbidev.multiversus.core.skill;
 
 import me.kubbidev.multiversus.FBukkitPlugin;
 import me.kubbidev.multiversus.core.skill.handler.SkillHandler;
-
-import java.util.HashMap;
-import java.util.Map;
+import me.kubbidev.multiversus.core.skill.handler.SkillParameter;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Can be used to cast a skill handler with configurable modifier input.
  */
 public class SimpleSkill extends Skill {
     private final SkillHandler<?> handler;
-    private final Map<String, Double> modifiers = new HashMap<>();
+
+    /**
+     * Parameter values, indexed by {@link SkillParameter#getSlot() slot}.
+     */
+    private final double[] modifiers;
 
     public SimpleSkill(FBukkitPlugin plugin, SkillHandler<?> handler) {
         super(plugin);
         this.handler = handler;
+        this.modifiers = new double[handler.getParameterCount()];
     }
 
     @Override
@@ -35,10 +39,22 @@ public class SimpleSkill extends Skill {
 
     @Override
     public double getParameter(String path) {
-        return this.modifiers.getOrDefault(path, 0d);
+        @Nullable SkillParameter parameter = this.handler.getParameter(path);
+        return parameter == null ? 0 : getParameter(parameter);
+    }
+
+    @Override
+    public double getParameter(SkillParameter parameter) {
+        this.handler.checkParameter(parameter);
+        return parameter.getSlot() < this.modifiers.length ? this.modifiers[parameter.getSlot()] : 0;
+    }
+
+    @Override
+    public boolean hasParameter(SkillParameter parameter) {
+        return parameter.getSlot() < this.modifiers.length && this.handler.hasParameter(parameter);
     }
 
     public void registerModifier(String path, double value) {
-        this.modifiers.put(path, value);
+        this.modifiers[this.handler.getParameterOrThrow(path).getSlot()] = value;
     }
 }
\ No newline at end of file
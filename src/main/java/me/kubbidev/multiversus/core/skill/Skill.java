@@ -4,6 +4,7 @@ import me.kubbidev.multiversus.FBukkitPlugin;
 import me.kubbidev.multiversus.core.event.skill.PostSkillCastEvent;
 import me.kubbidev.multiversus.core.event.skill.PreSkillCastEvent;
 import me.kubbidev.multiversus.core.skill.handler.SkillHandler;
+import me.kubbidev.multiversus.core.skill.handler.SkillParameter;
 import me.kubbidev.multiversus.core.skill.result.SkillResult;
 import me.kubbidev.multiversus.core.skill.trigger.TriggerMetadata;
 import org.bukkit.entity.LivingEntity;
@@ -45,11 +46,12 @@ public abstract class Skill {
         }
 
         // if the delay is null we cast normally the skill
-        int delayTicks = (int) (meta.getParameter("delay") * 20);
+        int delayTicks = (int) (meta.getParameter(SkillParameter.DELAY) * 20);
         if (delayTicks <= 0) {
             castInstantly(meta, result);
+        } else {
+            this.plugin.getSkillManager().castLater(meta, result, delayTicks);
         }
-        // TODO: implement delayed casting
         return result;
     }
 
@@ -116,4 +118,31 @@ public abstract class Skill {
      * @see SkillMetadata#getParameter(String)
      */
     public abstract double getParameter(String path);
+
+    /**
+     * !! WARNING !! Final skill parameter values also depend
+     * on the entity's skill modifiers, and this method does NOT
+     * take them into account.
+     * <p>
+     * Implementations should override this method to resolve the
+     * parameter through its slot rather than its name.
+     *
+     * @param parameter The skill parameter.
+     * @return The skill parameter value unaffected by skill modifiers.
+     * @see SkillMetadata#getParameter(SkillParameter)
+     */
+    public double getParameter(SkillParameter parameter) {
+        return getParameter(parameter.getName());
+    }
+
+    /**
+     * Parameters registered by the handler after this skill was
+     * loaded may have no value.
+     *
+     * @param parameter The skill parameter.
+     * @return If this skill has a value for the parameter
+     */
+    public boolean hasParameter(SkillParameter parameter) {
+        return getHandler().hasParameter(parameter);
+    }
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import me.kubbidev.multiversus.FBukkitPlugin;
 import me.kubbidev.multiversus.core.damage.AttackMetadata;
 import me.kubbidev.multiversus.core.damage.EntityMetadata;
 import me.kubbidev.multiversus.core.metadata.MetadataProvider;
+import me.kubbidev.multiversus.core.modifier.skill.SkillModifierMap;
+import me.kubbidev.multiversus.core.skill.handler.SkillParameter;
 import me.kubbidev.multiversus.core.util.EntityBody;
 import org.bukkit.Location;
 import org.bukkit.entity.Entity;
@@ -45,13 +47,35 @@ public class SkillMetadata {
     @Nullable
     private final AttackMetadata attackSource;
 
+    /**
+     * Skill modifiers of the caster, looked up once when the first
+     * parameter is read and then shared with sub-skills.
+     */
+    @Nullable
+    private SkillModifierMap modifierMap;
+
+    /**
+     * Final value of every parameter of the skill being cast, by parameter slot, resolved
+     * once when the first parameter is read and then shared with sub-skills.
+     */
+    @Nullable
+    private double[] parameters;
+
     public SkillMetadata(Skill cast, EntityMetadata caster, Location source, @Nullable Entity targetEntity, @Nullable Location targetLocation, @Nullable AttackMetadata attackSource) {
+        this(cast, caster, source, targetEntity, targetLocation, attackSource, null, null);
+    }
+
+    private SkillMetadata(Skill cast, EntityMetadata caster, Location source, @Nullable Entity targetEntity, @Nullable Location targetLocation,
+                          @Nullable AttackMetadata attackSource, @Nullable SkillModifierMap modifierMap, @Nullable double[] parameters) {
         this.cast = cast;
-        this.caster = caster;
+        // skills may outlive the damage event they were triggered by
+        this.caster = caster.retain();
         this.source = source;
         this.targetEntity = targetEntity;
         this.targetLocation = targetLocation;
-        this.attackSource = attackSource;
+        this.attackSource = attackSource == null ? null : attackSource.retain();
+        this.modifierMap = modifierMap;
+        this.parameters = parameters;
     }
 
     public Skill getCast() {
@@ -89,12 +113,63 @@ public class SkillMetadata {
      * Retrieves a specific skill parameter value.
      * <p>
      * This applies to the original skill being cast.
+     * <p>
+     * Every parameter is resolved once when the first one is read, so values
+     * do not change during the cast unless {@link #refreshParameters()} is called.
      *
      * @param parameter Skill parameter name
      * @return Skill parameter final value, taking into account skill mods
      */
     public double getParameter(String parameter) {
-        return MetadataProvider.getModifierMap(getEntity()).calculateValue(this.cast, parameter);
+        @Nullable SkillParameter key = this.cast.getHandler().getParameter(parameter);
+        return key == null ? getModifierMap().calculateValue(this.cast, parameter) : getParameter(key);
+    }
+
+    /**
+     * Retrieves a specific skill parameter value through its slot.
+     *
+     * @param parameter Skill parameter
+     * @return Skill parameter final value, taking into account skill mods
+     * @see #getParameter(String)
+     */
+    public double getParameter(SkillParameter parameter) {
+        this.cast.getHandler().checkParameter(parameter);
+        @Nullable double[] parameters = this.parameters;
+        if (parameters == null) {
+            parameters = getModifierMap().calculateValues(this.cast);
+            this.parameters = parameters;
+        }
+        int slot = parameter.getSlot();
+        if (slot >= parameters.length) {
+            // parameter registered after the snapshot was taken
+            return getModifierMap().calculateValue(this.cast, parameter);
+        }
+        double value = parameters[slot];
+        if (Double.isNaN(value) && !this.cast.hasParameter(parameter)) {
+            throw new IllegalArgumentException("Skill '" + this.cast.getHandler().getId() + "' has no parameter '" + parameter.getName() + "'");
+        }
+        return value;
+    }
+
+    /**
+     * Resolves every parameter value again, taking into account the skill
+     * modifiers registered or removed since the cast began.
+     * <p>
+     * This should be called by long-running skills before reading parameters
+     * which may have changed. Sub-skills created before the refresh keep the
+     * previous values.
+     */
+    public void refreshParameters() {
+        this.parameters = getModifierMap().calculateValues(this.cast);
+    }
+
+    private SkillModifierMap getModifierMap() {
+        @Nullable SkillModifierMap modifierMap = this.modifierMap;
+        if (modifierMap == null) {
+            modifierMap = MetadataProvider.getModifierMap(getEntity());
+            this.modifierMap = modifierMap;
+        }
+        return modifierMap;
     }
 
     public Entity getTargetEntity() {
@@ -165,7 +240,7 @@ public class SkillMetadata {
      * @return New skill metadata for other sub-skills
      */
     public SkillMetadata clone(Location source, @Nullable Entity targetEntity, @Nullable Location targetLocation) {
-        return new SkillMetadata(this.cast, this.caster, source, targetEntity, targetLocation, this.attackSource);
+        return new SkillMetadata(this.cast, this.caster, source, targetEntity, targetLocation, this.attackSource, this.modifierMap, this.parameters);
     }
 
     public SkillMetadata clone(Location targetLocation) {
@@ -1,11 +1,15 @@
 package me.kubbidev.multiversus.core.skill.handler;
 
+import com.google.common.base.Preconditions;
 import me.kubbidev.multiversus.core.UtilityMethod;
+import me.kubbidev.multiversus.core.modifier.skill.SkillParameterIdentifier;
 import me.kubbidev.multiversus.core.skill.Skill;
 import me.kubbidev.multiversus.core.skill.SkillMetadata;
 import me.kubbidev.multiversus.core.skill.result.SkillResult;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * {@link SkillHandler} are skills subtracted from all of there data.
@@ -13,8 +17,29 @@ import java.util.*;
  * @param <T> Skill result class being used by that skill behaviour
  */
 public abstract class SkillHandler<T extends SkillResult> {
+
+    /**
+     * Dense index of every handler id, assigned in the order handlers are created.
+     */
+    private static final Map<String, Integer> INDICES = new ConcurrentHashMap<>();
+
     private final String id;
-    private final Set<String> parameters = new HashSet<>();
+    private final int index;
+
+    /**
+     * Parameters of this handler by name, in slot order.
+     */
+    private final Map<String, SkillParameter> parameters = new LinkedHashMap<>();
+
+    /**
+     * Parameters of this handler by slot.
+     */
+    private final List<SkillParameter> parameterSlots = new ArrayList<>();
+
+    /**
+     * Interned identifiers of the parameters of this handler, by slot.
+     */
+    private SkillParameterIdentifier[] identifiers = new SkillParameterIdentifier[0];
 
     /**
      * Global random number generator used throughout the class.
@@ -29,8 +54,9 @@ public abstract class SkillHandler<T extends SkillResult> {
                 .toLowerCase(Locale.ROOT)
                 .replace("-", "_")
                 .replace(" ", "_");
+        this.index = indexOf(this.id);
 
-        registerParameters("cooldown", "mana", "stamina", "timer", "delay");
+        registerDefaultParameters();
     }
 
     /**
@@ -42,20 +68,77 @@ public abstract class SkillHandler<T extends SkillResult> {
         this.id = id.toLowerCase(Locale.ROOT)
                 .replace("-", "_")
                 .replace(" ", "_");
+        this.index = indexOf(this.id);
 
-        registerParameters("cooldown", "mana", "stamina", "timer", "delay");
+        registerDefaultParameters();
+    }
+
+    private static synchronized int indexOf(String id) {
+        return INDICES.computeIfAbsent(id, k -> INDICES.size());
+    }
+
+    /**
+     * @return The amount of handler indexes assigned so far, which
+     * every handler {@link #getIndex() index} is lower than
+     */
+    public static int getIndexCount() {
+        return INDICES.size();
     }
 
     public String getId() {
         return this.id;
     }
 
+    /**
+     * Handlers with the same id share the same index, which can be
+     * used to store per handler data in arrays rather than maps.
+     *
+     * @return The dense index of this handler
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    private void registerDefaultParameters() {
+        for (SkillParameter parameter : SkillParameter.DEFAULTS) {
+            registerParameter(parameter);
+        }
+    }
+
     public void registerParameters(String... params) {
         registerParameters(Arrays.asList(params));
     }
 
     public void registerParameters(Collection<String> params) {
-        this.parameters.addAll(params);
+        for (String param : params) {
+            registerParameter(param);
+        }
+    }
+
+    /**
+     * Registers a parameter of this handler.
+     * <p>
+     * Handlers should keep the returned key to read the parameter value, which
+     * resolves to a slot instead of hashing the parameter name.
+     *
+     * @param name The parameter name
+     * @return The key of the parameter, or the existing one if a
+     * parameter with this name was already registered
+     */
+    public SkillParameter registerParameter(String name) {
+        @Nullable SkillParameter parameter = this.parameters.get(name);
+        return parameter != null ? parameter : registerParameter(new SkillParameter(name, this.parameterSlots.size()));
+    }
+
+    private SkillParameter registerParameter(SkillParameter parameter) {
+        Preconditions.checkArgument(parameter.getSlot() == this.parameterSlots.size(), "Parameter slot mismatch");
+        this.parameters.put(parameter.getName(), parameter);
+        this.parameterSlots.add(parameter);
+
+        SkillParameterIdentifier[] identifiers = Arrays.copyOf(this.identifiers, this.parameterSlots.size());
+        identifiers[parameter.getSlot()] = SkillParameterIdentifier.of(this.id, parameter.getName());
+        this.identifiers = identifiers;
+        return parameter;
     }
 
     /**
@@ -68,7 +151,75 @@ public abstract class SkillHandler<T extends SkillResult> {
      * @return The set of all possible parameters of that skill
      */
     public Set<String> getParameters() {
-        return this.parameters;
+        return Collections.unmodifiableSet(this.parameters.keySet());
+    }
+
+    /**
+     * @return The keys of all possible parameters of that skill, by slot
+     */
+    public List<SkillParameter> getParameterKeys() {
+        return Collections.unmodifiableList(this.parameterSlots);
+    }
+
+    /**
+     * @param name The parameter name
+     * @return The key of the parameter, or null if this handler has no such parameter
+     */
+    public @Nullable SkillParameter getParameter(String name) {
+        return this.parameters.get(name);
+    }
+
+    /**
+     * @param slot The parameter slot, lower than {@link #getParameterCount()}
+     * @return The key of the parameter registered at this slot
+     */
+    public SkillParameter getParameter(int slot) {
+        return this.parameterSlots.get(slot);
+    }
+
+    public SkillParameter getParameterOrThrow(String name) {
+        @Nullable SkillParameter parameter = this.parameters.get(name);
+        Preconditions.checkArgument(parameter != null, "Skill '%s' has no parameter '%s'", this.id, name);
+        return parameter;
+    }
+
+    /**
+     * @return The amount of parameters of this handler, which is
+     * also the amount of parameter slots
+     */
+    public int getParameterCount() {
+        return this.parameterSlots.size();
+    }
+
+    /**
+     * @param parameter A parameter of this handler
+     * @return The interned identifier of the parameter
+     * @throws IllegalArgumentException if the parameter does not belong to this handler
+     */
+    public SkillParameterIdentifier getIdentifier(SkillParameter parameter) {
+        checkParameter(parameter);
+        return this.identifiers[parameter.getSlot()];
+    }
+
+    /**
+     * @param parameter The parameter key
+     * @return If the parameter key was registered by this handler
+     */
+    public boolean hasParameter(SkillParameter parameter) {
+        int slot = parameter.getSlot();
+        return slot < this.parameterSlots.size() && this.parameterSlots.get(slot) == parameter;
+    }
+
+    /**
+     * Checks that a parameter key belongs to this handler, which guarantees
+     * that its slot can be used to index this handler parameters.
+     *
+     * @param parameter The parameter key
+     */
+    public void checkParameter(SkillParameter parameter) {
+        if (!hasParameter(parameter)) {
+            throw new IllegalArgumentException("Skill '" + this.id + "' has no parameter '" + parameter.getName() + "'");
+        }
     }
 
 
@@ -0,0 +1,51 @@
+package me.kubbidev.multiversus.core.skill.handler;
+
+/**
+ * A typed key for a skill parameter.
+ * <p>
+ * Parameters are declared by {@link SkillHandler}s which give each of them a slot, its index
+ * in the order the handler registered its parameters. Skill parameter values are stored in
+ * arrays indexed by slot so that resolving a parameter never hashes its name.
+ * <p>
+ * The parameters every handler has are registered first, in the order of the constants
+ * of this class, so they share the same slots in all handlers.
+ */
+public final class SkillParameter {
+    public static final SkillParameter COOLDOWN = new SkillParameter("cooldown", 0);
+    public static final SkillParameter MANA = new SkillParameter("mana", 1);
+    public static final SkillParameter STAMINA = new SkillParameter("stamina", 2);
+    public static final SkillParameter TIMER = new SkillParameter("timer", 3);
+    public static final SkillParameter DELAY = new SkillParameter("delay", 4);
+
+    /**
+     * The parameters of every skill handler, by slot.
+     */
+    static final SkillParameter[] DEFAULTS = {COOLDOWN, MANA, STAMINA, TIMER, DELAY};
+
+    private final String name;
+    private final int slot;
+
+    SkillParameter(String name, int slot) {
+        this.name = name;
+        this.slot = slot;
+    }
+
+    /**
+     * @return The parameter name, as used in skill configuration files
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return The index of this parameter in its skill handler
+     */
+    public int getSlot() {
+        return this.slot;
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
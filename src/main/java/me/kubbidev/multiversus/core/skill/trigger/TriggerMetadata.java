@@ -66,14 +66,18 @@ public class TriggerMetadata {
         this(caster.getEntity(), caster.getActionHand(), caster.getEntity().getLocation(), target, null, attack, caster);
     }
 
+    /**
+     * The attack and the cached metadata are {@link AttackMetadata#retain() retained}, as
+     * skills may keep them after the damage event, when delayed or dealing damage over time.
+     */
     public TriggerMetadata(LivingEntity caster, EquipmentSlot actionHand, Location source, @Nullable Entity target, @Nullable Location targetLocation, @Nullable AttackMetadata attack, @Nullable EntityMetadata cachedMetadata) {
         this.caster = caster;
         this.actionHand = actionHand;
         this.source = source;
         this.target = target;
         this.targetLocation = targetLocation;
-        this.attack = attack;
-        this.cachedMetadata = cachedMetadata;
+        this.attack = attack == null ? null : attack.retain();
+        this.cachedMetadata = cachedMetadata == null ? null : cachedMetadata.retain();
     }
 
     public LivingEntity getCaster() {
@@ -39,6 +39,33 @@ public enum EquipmentSlot {
      */
     OTHER;
 
+    /**
+     * Compatibility of every modifier source and equipment slot pair with the hands, indexed
+     * by modifier source then equipment slot ordinals. See {@link #getCompatibility(ModifierSource, EquipmentSlot)}.
+     * <p>
+     * The compatibility of a pair never changes so it is only computed once.
+     */
+    private static final int[][] COMPATIBILITY;
+
+    static {
+        EquipmentSlot[] slots = values();
+        ModifierSource[] sources = ModifierSource.values();
+        COMPATIBILITY = new int[sources.length][slots.length];
+
+        for (ModifierSource source : sources) {
+            for (EquipmentSlot slot : slots) {
+                int compatibility = 0;
+                if (MAIN_HAND.computeCompatible(source, slot)) {
+                    compatibility |= MAIN_HAND.getHandMask();
+                }
+                if (OFF_HAND.computeCompatible(source, slot)) {
+                    compatibility |= OFF_HAND.getHandMask();
+                }
+                COMPATIBILITY[source.ordinal()][slot.ordinal()] = compatibility;
+            }
+        }
+    }
+
     public org.bukkit.inventory.EquipmentSlot toBukkit() {
         switch (this) {
             case MAIN_HAND:
@@ -106,8 +133,28 @@ public enum EquipmentSlot {
      * be taken into account given by the action hand
      */
     public boolean isCompatible(ModifierSource modifierSource, EquipmentSlot equipmentSlot) {
+        return (getCompatibility(modifierSource, equipmentSlot) & getHandMask()) != 0;
+    }
+
+    /**
+     * @param modifierSource The source of modifier
+     * @param equipmentSlot  The equipment slot of the modifier
+     * @return A bit mask of the {@link #getHandMask() hands} a modifier with the given
+     * equipment slot and modifier source should be taken into account for
+     */
+    public static int getCompatibility(ModifierSource modifierSource, EquipmentSlot equipmentSlot) {
+        return COMPATIBILITY[modifierSource.ordinal()][equipmentSlot.ordinal()];
+    }
+
+    /**
+     * @return The bit of this hand in the masks returned by {@link #getCompatibility(ModifierSource, EquipmentSlot)}
+     */
+    public int getHandMask() {
         Preconditions.checkArgument(isHand(), "Instance called must be a hand equipment slot");
+        return this == MAIN_HAND ? 1 : 2;
+    }
 
+    private boolean computeCompatible(ModifierSource modifierSource, EquipmentSlot equipmentSlot) {
         if (equipmentSlot == OTHER) {
             return true;
         }
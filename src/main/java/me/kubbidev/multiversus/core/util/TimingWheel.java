@@ -0,0 +1,234 @@
+package me.kubbidev.multiversus.core.util;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel, used to expire a large amount of values after
+ * a given amount of ticks.
+ * <p>
+ * The wheel is made of {@link #LEVELS} levels of {@link #WHEEL_SIZE} slots, every slot of
+ * a level covering as many ticks as a whole level below. Values are stored in doubly linked
+ * lists, in the slot of the lowest level that can hold their deadline, so scheduling and
+ * cancelling a value is done in constant time. When the wheel advances past a slot of an
+ * upper level, the values of this slot are moved down to the lower levels.
+ * <p>
+ * Deadlines beyond the range of the upper level are supported, their values are simply
+ * moved down once every time the upper level is done a full turn.
+ * <p>
+ * This class is NOT thread safe.
+ *
+ * @param <T> The values stored
+ */
+public final class TimingWheel<T> {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    /**
+     * Sentinel of the list of every slot, by level then by slot index.
+     */
+    private final Timeout<T>[] slots;
+
+    /**
+     * Timeouts which expired during the current tick, reused from one tick to another.
+     */
+    private final List<Timeout<T>> expired = new ArrayList<>();
+
+    /**
+     * The current tick of this wheel.
+     */
+    private long tick;
+
+    /**
+     * Amount of values currently scheduled.
+     */
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel() {
+        this.slots = new Timeout[LEVELS * WHEEL_SIZE];
+        for (int i = 0; i < this.slots.length; i++) {
+            Timeout<T> sentinel = new Timeout<>(this, null, 0);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            this.slots[i] = sentinel;
+        }
+    }
+
+    /**
+     * @return The current tick of this wheel, that is the amount of
+     * times it was {@link #advance(Consumer) advanced}.
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * @return The amount of values currently scheduled
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Schedules a value to expire after the given amount of ticks.
+     *
+     * @param value The value
+     * @param ticks The amount of ticks, values expire after at least one tick
+     * @return The timeout of the value, which can be used to cancel it
+     */
+    public Timeout<T> schedule(T value, long ticks) {
+        Preconditions.checkNotNull(value, "value");
+        Timeout<T> timeout = new Timeout<>(this, value, this.tick + Math.max(1, ticks));
+        link(timeout);
+        this.size++;
+        return timeout;
+    }
+
+    /**
+     * Advances the wheel by one tick, and gives every value which
+     * expired during this tick to the given action.
+     * <p>
+     * All the values are removed from the wheel before the action is called, so
+     * cancelling them from the action has no effect.
+     *
+     * @param action The action called for every value which expired
+     */
+    public void advance(Consumer<? super T> action) {
+        long tick = ++this.tick;
+
+        // move down the values of the upper level slots reached by this tick,
+        // highest first so that their values can be moved down again
+        int level = 0;
+        while (level < LEVELS - 1 && (tick & ((1L << (WHEEL_BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        for (; level > 0; level--) {
+            Timeout<T> sentinel = getSlot(level, tick);
+            Timeout<T> timeout = sentinel.next;
+            unlinkAll(sentinel);
+            while (timeout != sentinel) {
+                Timeout<T> next = timeout.next;
+                link(timeout);
+                timeout = next;
+            }
+        }
+
+        Timeout<T> sentinel = getSlot(0, tick);
+        if (sentinel.next == sentinel) {
+            return;
+        }
+
+        for (Timeout<T> timeout = sentinel.next; timeout != sentinel; ) {
+            Timeout<T> next = timeout.next;
+            timeout.prev = null;
+            timeout.next = null;
+            this.expired.add(timeout);
+            timeout = next;
+        }
+        unlinkAll(sentinel);
+        this.size -= this.expired.size();
+
+        try {
+            for (Timeout<T> timeout : this.expired) {
+                action.accept(timeout.value);
+            }
+        } finally {
+            this.expired.clear();
+        }
+    }
+
+    /**
+     * Adds a timeout to the slot of the lowest level which can hold its deadline,
+     * that is the first level where the deadline and the current tick only differ
+     * by the bits of this level.
+     */
+    private void link(Timeout<T> timeout) {
+        long deadline = Math.max(timeout.deadline, this.tick);
+
+        int level = 0;
+        while (level < LEVELS - 1 && (deadline >>> (WHEEL_BITS * (level + 1))) != (this.tick >>> (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+
+        Timeout<T> sentinel = getSlot(level, deadline);
+        timeout.prev = sentinel.prev;
+        timeout.next = sentinel;
+        sentinel.prev.next = timeout;
+        sentinel.prev = timeout;
+    }
+
+    private Timeout<T> getSlot(int level, long tick) {
+        return this.slots[level * WHEEL_SIZE + (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+    }
+
+    private static <T> void unlinkAll(Timeout<T> sentinel) {
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+    }
+
+    /**
+     * A value scheduled in a {@link TimingWheel}.
+     *
+     * @param <T> The value stored
+     */
+    public static final class Timeout<T> {
+        private final TimingWheel<T> wheel;
+        private final T value;
+        private final long deadline;
+
+        @Nullable
+        private Timeout<T> prev;
+
+        @Nullable
+        private Timeout<T> next;
+
+        private Timeout(TimingWheel<T> wheel, T value, long deadline) {
+            this.wheel = wheel;
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        public T getValue() {
+            return this.value;
+        }
+
+        /**
+         * @return The tick of the wheel during which the value expires
+         */
+        public long getDeadline() {
+            return this.deadline;
+        }
+
+        /**
+         * @return If the value is still scheduled, that is if it
+         * did not expire and was not cancelled
+         */
+        public boolean isPending() {
+            return this.prev != null;
+        }
+
+        /**
+         * Removes the value from the wheel so that it never expires.
+         *
+         * @return True if the value was still scheduled
+         */
+        public boolean cancel() {
+            if (this.prev == null || this.next == null) {
+                return false;
+            }
+            this.prev.next = this.next;
+            this.next.prev = this.prev;
+            this.prev = null;
+            this.next = null;
+            this.wheel.size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package me.kubbidev.multiversus.core.manager;
+
+import me.kubbidev.multiversus.FBukkitPlugin;
+import me.kubbidev.multiversus.config.ConfigKeys;
+import me.kubbidev.multiversus.config.MultiConfiguration;
+import me.kubbidev.multiversus.core.damage.AttackMetadata;
+import me.kubbidev.multiversus.core.damage.DamageMetadata;
+import me.kubbidev.multiversus.core.damage.DamageType;
+import me.kubbidev.multiversus.plugin.logging.PluginLogger;
+import org.bukkit.entity.LivingEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stress tests of the attack registry, registering and unregistering
+ * attacks from many threads at once.
+ */
+public class DamageManagerTest {
+    private static final int THREADS = 8;
+    private static final int ENTITIES_PER_THREAD = 64;
+    private static final int ROUNDS = 2_000;
+
+    private DamageManager damageManager;
+
+    @BeforeEach
+    public void setup() {
+        MultiConfiguration configuration = mock(MultiConfiguration.class);
+        when(configuration.get(ConfigKeys.ATTACK_RECYCLING_ENABLED)).thenReturn(false);
+        when(configuration.get(ConfigKeys.ATTACK_RECYCLING_DEBUG)).thenReturn(false);
+        when(configuration.get(ConfigKeys.PER_SOURCE_IMMUNITY_ENABLED)).thenReturn(false);
+        when(configuration.get(ConfigKeys.COMBAT_LOG_SIZE)).thenReturn(0);
+
+        FBukkitPlugin plugin = mock(FBukkitPlugin.class);
+        when(plugin.getConfiguration()).thenReturn(configuration);
+        when(plugin.getLogger()).thenReturn(mock(PluginLogger.class));
+        this.damageManager = new DamageManager(plugin);
+    }
+
+    @Test
+    @Timeout(value = 60)
+    public void testDisjointTargets() throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                // every thread owns its own entities, as region threads do
+                List<AttackMetadata> attacks = new ArrayList<>(ENTITIES_PER_THREAD);
+                for (int i = 0; i < ENTITIES_PER_THREAD; i++) {
+                    attacks.add(attack(t * ENTITIES_PER_THREAD + i));
+                }
+
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (AttackMetadata attack : attacks) {
+                            assertNull(this.damageManager.markAsMetadata(attack), "Attack registered by another thread");
+                        }
+                        for (AttackMetadata attack : attacks) {
+                            assertSame(attack, this.damageManager.unmarkAsMetadata(attack.getTarget()), "Attack lost by the registry");
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, this.damageManager.getContentionCount());
+        assertEquals(0, this.damageManager.getLeakCount());
+    }
+
+    @Test
+    @Timeout(value = 60)
+    public void testSharedTarget() throws Exception {
+        List<Future<Long>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        LivingEntity target = entity(0);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                AttackMetadata attack = new AttackMetadata(new DamageMetadata(1, DamageType.PHYSICAL), target, null);
+
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long contention = 0;
+                    for (int round = 0; round < ROUNDS; round++) {
+                        if (this.damageManager.markAsMetadata(attack) != null) {
+                            contention++;
+                        }
+                        this.damageManager.unmarkAsMetadata(target);
+                    }
+                    return contention;
+                }));
+            }
+
+            start.countDown();
+            long contention = 0;
+            for (Future<Long> future : futures) {
+                contention += future.get();
+            }
+
+            // every attack replacing another one must be counted exactly once
+            assertEquals(contention, this.damageManager.getContentionCount());
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        this.damageManager.unmarkAsMetadata(target);
+        assertNull(this.damageManager.unmarkAsMetadata(target));
+    }
+
+    private static AttackMetadata attack(int entityId) {
+        return new AttackMetadata(new DamageMetadata(1, DamageType.PHYSICAL), entity(entityId), null);
+    }
+
+    /**
+     * @param entityId The entity id
+     * @return A living entity which only supports what the attack registry uses
+     */
+    private static LivingEntity entity(int entityId) {
+        return (LivingEntity) Proxy.newProxyInstance(LivingEntity.class.getClassLoader(), new Class<?>[]{LivingEntity.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getEntityId":
+                case "hashCode":
+                    return entityId;
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "Entity#" + entityId;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
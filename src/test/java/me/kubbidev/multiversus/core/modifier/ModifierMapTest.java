@@ -0,0 +1,150 @@
+package me.kubbidev.multiversus.core.modifier;
+
+import me.kubbidev.multiversus.core.util.EquipmentSlot;
+import org.bukkit.entity.LivingEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress tests of the lock-free reads of a {@link ModifierMap}, while
+ * other threads keep adding and removing modifiers.
+ */
+public class ModifierMapTest {
+    private static final ModifierSource[] SOURCES = ModifierSource.values();
+    private static final EquipmentSlot[] SLOTS = EquipmentSlot.values();
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int MODIFIERS_PER_WRITER = 32;
+    private static final int ROUNDS = 500;
+    private static final int PERMANENT_MODIFIERS = 16;
+
+    @Test
+    @Timeout(value = 60)
+    public void testConcurrentSnapshots() throws Exception {
+        ModifierMap<EntityModifier> modifierMap = new ModifierMap<EntityModifier>(null) {
+        };
+
+        // modifiers which are never removed, every snapshot must contain them
+        List<EntityModifier> permanent = new ArrayList<>();
+        for (int i = 0; i < PERMANENT_MODIFIERS; i++) {
+            EntityModifier modifier = modifier(i, "permanent");
+            permanent.add(modifier);
+            modifierMap.addModifier(modifier);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                String key = "writer-" + w;
+                List<EntityModifier> modifiers = new ArrayList<>();
+                for (int i = 0; i < MODIFIERS_PER_WRITER; i++) {
+                    modifiers.add(modifier(w * MODIFIERS_PER_WRITER + i, key));
+                }
+
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (EntityModifier modifier : modifiers) {
+                            modifierMap.addModifier(modifier);
+                        }
+                        if (round % 2 == 0) {
+                            for (EntityModifier modifier : modifiers) {
+                                assertSame(modifier, modifierMap.removeModifier(modifier.getUniqueId()));
+                            }
+                        } else {
+                            modifierMap.removeModifiers(key);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    do {
+                        checkSnapshot(modifierMap.getModifiers(), permanent);
+                        checkHand(modifierMap.isolateModifiers(EquipmentSlot.MAIN_HAND), EquipmentSlot.MAIN_HAND);
+                        checkHand(modifierMap.isolateModifiers(EquipmentSlot.OFF_HAND), EquipmentSlot.OFF_HAND);
+                    } while (writing.get());
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            try {
+                for (Future<?> writer : writers) {
+                    writer.get();
+                }
+            } finally {
+                writing.set(false);
+            }
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // every writer removed the modifiers it added
+        assertEquals(new HashSet<>(permanent), new HashSet<>(modifierMap.getModifiers()));
+    }
+
+    private static void checkSnapshot(Collection<EntityModifier> modifiers, List<EntityModifier> permanent) {
+        Set<UUID> seen = new HashSet<>();
+        int count = 0;
+        for (EntityModifier modifier : modifiers) {
+            assertTrue(seen.add(modifier.getUniqueId()), "Modifier seen twice in a snapshot");
+            count++;
+        }
+
+        // the snapshot must not change while being read
+        assertEquals(count, modifiers.size(), "Snapshot changed while being read");
+        for (EntityModifier modifier : permanent) {
+            assertTrue(seen.contains(modifier.getUniqueId()), "Permanent modifier missing from a snapshot");
+        }
+    }
+
+    private static void checkHand(List<EntityModifier> modifiers, EquipmentSlot hand) {
+        Set<UUID> seen = new HashSet<>();
+        for (EntityModifier modifier : modifiers) {
+            assertTrue(hand.isCompatible(modifier), "Incompatible modifier isolated for " + hand);
+            assertTrue(seen.add(modifier.getUniqueId()), "Modifier isolated twice for " + hand);
+        }
+    }
+
+    private static EntityModifier modifier(int index, String key) {
+        ModifierSource source = SOURCES[index % SOURCES.length];
+        EquipmentSlot slot = SLOTS[(index / SOURCES.length) % SLOTS.length];
+        return new EntityModifier(source, slot, key) {
+            @Override
+            public void register(LivingEntity entity) {
+            }
+
+            @Override
+            public void unregister(LivingEntity entity) {
+            }
+        };
+    }
+}